@@ -53,3 +53,20 @@ CREATE INDEX namespace_user_mv_namespace_active_idx ON namespace_user_mv (namesp
 
 -- Refresh the materialized view concurrently (requires unique index on id)
 -- To refresh: REFRESH MATERIALIZED VIEW CONCURRENTLY namespace_user_mv;
+
+-- The application refreshes the view itself (NamespaceUserViewRefresher), coalescing changes per
+-- namespace. With bx.namespace.user-view.refresh.mode=INCREMENTAL it rebuilds only the changed
+-- namespaces' rows, which needs namespace_user_mv to be a plain table instead of the view above:
+--
+-- DROP MATERIALIZED VIEW IF EXISTS namespace_user_mv CASCADE;
+-- CREATE TABLE namespace_user_mv AS
+-- SELECT nu.id, nu.namespace_id, nu.principal_id, r.name AS role, nu.display_name, nu.type,
+--        nu.permissions, nu.entry_id, nu.active, nu.activation_date, nu.expiration_date,
+--        nu.approved_by, nu.approved_date, nu.created_by, nu.created_date, nu.modified_by,
+--        nu.modified_date, ub.first_name, ub.last_name, ub.email, ub.phone, ub.image_url,
+--        ub.profile, ub.preference, ub.active AS user_active
+-- FROM namespace_user nu
+-- INNER JOIN user_base ub ON nu.principal_id = ub.id
+-- LEFT JOIN namespace_role r ON nu.role_id = r.id;
+-- ALTER TABLE namespace_user_mv ADD PRIMARY KEY (id);
+-- (then the secondary indexes above)
@@ -83,6 +83,23 @@ CREATE TABLE place_alt_name (
         REFERENCES place(namespace_id, id) ON DELETE CASCADE
 );
 
+-- Hierarchy closure: one row per (ancestor, descendant) pair, including each place with itself
+-- at depth 0. Maintained by the place_closure_* triggers below; never written by the application.
+DROP TABLE IF EXISTS place_closure CASCADE;
+CREATE TABLE place_closure (
+    namespace_id     UUID NOT NULL,
+    ancestor_id      UUID NOT NULL,
+    descendant_id    UUID NOT NULL,
+    depth            INT NOT NULL,                    -- 0 = self, 1 = child, 2 = grandchild, ...
+
+    PRIMARY KEY (namespace_id, ancestor_id, descendant_id),
+
+    CONSTRAINT ancestor_fk FOREIGN KEY(namespace_id, ancestor_id)
+        REFERENCES place(namespace_id, id) ON DELETE CASCADE,
+    CONSTRAINT descendant_fk FOREIGN KEY(namespace_id, descendant_id)
+        REFERENCES place(namespace_id, id) ON DELETE CASCADE
+);
+
 -- Indexes for performance
 
 -- Primary name search (prefix + fuzzy)
@@ -99,6 +116,8 @@ CREATE INDEX place_active_idx ON place (namespace_id, active);
 
 -- Hierarchy queries
 CREATE INDEX place_parent_idx ON place (namespace_id, parent_id);
+-- Descendants use the primary key (namespace_id, ancestor_id, ...); ancestors use this one
+CREATE INDEX place_closure_descendant_idx ON place_closure (namespace_id, descendant_id, depth);
 
 -- Geo-spatial indexes (critical for performance)
 CREATE INDEX place_center_gist_idx ON place USING gist (center);
@@ -207,8 +226,89 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql STABLE;
 
+-- Closure maintenance: a new place inherits its parent's ancestors. A child takes the same lock as
+-- place_closure_reparent before reading its parent's rows, so it never copies ancestors a concurrent
+-- move is rewriting, and a move never misses a child inserted under its subtree.
+CREATE OR REPLACE FUNCTION place_closure_insert()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.parent_id IS NOT NULL THEN
+        PERFORM pg_advisory_xact_lock(hashtext(CAST(NEW.namespace_id AS text)), hashtext('place_tree'));
+    END IF;
+
+    INSERT INTO place_closure (namespace_id, ancestor_id, descendant_id, depth)
+    SELECT NEW.namespace_id, NEW.id, NEW.id, 0
+    UNION ALL
+    SELECT NEW.namespace_id, c.ancestor_id, NEW.id, c.depth + 1
+    FROM place_closure c
+    WHERE c.namespace_id = NEW.namespace_id
+      AND c.descendant_id = NEW.parent_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Closure maintenance: a reparented place moves its whole subtree from the old ancestors to the new.
+-- Moves and child inserts within a namespace are serialized on an advisory lock taken before the
+-- cycle check: under READ COMMITTED two concurrent moves ("A under B", "B under A") would otherwise
+-- each miss the other's uncommitted closure rows and together create a cycle, and a child inserted
+-- during a move would keep stale ancestor rows. The statements after the lock see whatever the
+-- previous holder committed.
+CREATE OR REPLACE FUNCTION place_closure_reparent()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(CAST(NEW.namespace_id AS text)), hashtext('place_tree'));
+
+    IF NEW.parent_id IS NOT NULL AND EXISTS (
+        SELECT 1 FROM place_closure
+        WHERE namespace_id = NEW.namespace_id
+          AND ancestor_id = NEW.id
+          AND descendant_id = NEW.parent_id
+    ) THEN
+        RAISE EXCEPTION 'place % cannot be moved under itself or its descendant %', NEW.id, NEW.parent_id;
+    END IF;
+
+    DELETE FROM place_closure c
+    USING place_closure sub, place_closure anc
+    WHERE sub.namespace_id = NEW.namespace_id AND sub.ancestor_id = NEW.id
+      AND anc.namespace_id = NEW.namespace_id AND anc.descendant_id = NEW.id AND anc.depth > 0
+      AND c.namespace_id = NEW.namespace_id
+      AND c.ancestor_id = anc.ancestor_id
+      AND c.descendant_id = sub.descendant_id;
+
+    INSERT INTO place_closure (namespace_id, ancestor_id, descendant_id, depth)
+    SELECT NEW.namespace_id, anc.ancestor_id, sub.descendant_id, anc.depth + sub.depth + 1
+    FROM place_closure anc, place_closure sub
+    WHERE anc.namespace_id = NEW.namespace_id AND anc.descendant_id = NEW.parent_id
+      AND sub.namespace_id = NEW.namespace_id AND sub.ancestor_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER place_closure_insert_trg
+    AFTER INSERT ON place
+    FOR EACH ROW EXECUTE FUNCTION place_closure_insert();
+
+CREATE TRIGGER place_closure_reparent_trg
+    AFTER UPDATE OF parent_id ON place
+    FOR EACH ROW
+    WHEN (OLD.parent_id IS DISTINCT FROM NEW.parent_id)
+    EXECUTE FUNCTION place_closure_reparent();
+
+-- Backfill place_closure on a database that already has places (run once, after the triggers exist)
+-- INSERT INTO place_closure (namespace_id, ancestor_id, descendant_id, depth)
+-- WITH RECURSIVE tree AS (
+--     SELECT namespace_id, id AS ancestor_id, id AS descendant_id, 0 AS depth FROM place
+--     UNION ALL
+--     SELECT t.namespace_id, t.ancestor_id, p.id, t.depth + 1
+--     FROM tree t
+--     JOIN place p ON p.namespace_id = t.namespace_id AND p.parent_id = t.descendant_id
+-- )
+-- SELECT namespace_id, ancestor_id, descendant_id, depth FROM tree
+-- ON CONFLICT DO NOTHING;
+
 -- Comments for documentation
 COMMENT ON TABLE place IS 'Multi-tenant location/place storage with PostGIS support for geo-spatial queries';
 COMMENT ON COLUMN place.center IS 'Point geometry for distance and radius queries (WGS84)';
 COMMENT ON COLUMN place.bbox IS 'Bounding box polygon for area-based filtering and containment checks';
+COMMENT ON TABLE place_closure IS 'Transitive closure of the place hierarchy for single-predicate descendant/ancestor queries';
 COMMENT ON TABLE place_alt_name IS 'Alternate names for places (translations, historical names, abbreviations)';
@@ -94,6 +94,8 @@ CREATE INDEX booking_namespace_idx      ON booking (namespace_id);
 CREATE INDEX booking_res_start_idx      ON booking (namespace_id, resource_id, start_at);
 CREATE INDEX booking_user_start_idx     ON booking (namespace_id, user_id, start_at);
 CREATE INDEX booking_status_idx         ON booking (namespace_id, status);
+-- keyset listing of a whole namespace ordered by (start_at, id)
+CREATE INDEX booking_ns_start_idx       ON booking (namespace_id, start_at, id);
 
 -- Prevent overlapping bookings per resource per namespace
 ALTER TABLE booking
@@ -103,7 +105,7 @@ ALTER TABLE booking
     resource_id  WITH =,
     slot         WITH &&
   )
-  WHERE (deleted_at IS NULL AND status IN ('tentative','confirmed'));
+  WHERE (deleted_date IS NULL AND status IN ('tentative','confirmed'));
 
 -- ===========================================================
 -- Holds & Waitlist
@@ -151,6 +153,60 @@ CREATE TABLE booking_waitlist (
 
 CREATE INDEX waitlist_res_time_idx ON booking_waitlist (namespace_id, resource_id, priority, created_at);
 
+-- ===========================================================
+-- Recurring booking series
+-- ===========================================================
+
+-- The rule is stored once; occurrences are expanded per queried window.
+-- start_at/end_at are the first occurrence, span_end is the last occurrence end. New series must end
+-- within bx.booking.series.conflict-horizon-days of their first occurrence; NULL (open-ended) is only
+-- kept for rows written before that limit.
+CREATE TABLE booking_series (
+  id             uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+  namespace_id   uuid NOT NULL,
+  resource_id    uuid NOT NULL REFERENCES resource(id) ON DELETE RESTRICT,
+  user_id        uuid NOT NULL,
+  title          text,
+  notes          text,
+  rrule          text NOT NULL,          -- RFC 5545 subset, e.g. FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20
+  timezone       text NOT NULL,          -- IANA zone the rule is evaluated in
+  start_at       timestamptz NOT NULL,
+  end_at         timestamptz NOT NULL CHECK (end_at > start_at),
+  span_end       timestamptz,
+  status         booking_status NOT NULL DEFAULT 'confirmed',
+  deleted_date   timestamptz,
+  span           tstzrange GENERATED ALWAYS AS (tstzrange(start_at, span_end, '[)')) STORED,
+    created_by uuid not null,
+    created_date timestamp with time zone not null,
+    modified_by uuid not null,
+    modified_date timestamp with time zone not null,
+      CONSTRAINT created_by_fk FOREIGN KEY(created_by)
+                        REFERENCES base_principal(id),
+      CONSTRAINT modified_by_fk FOREIGN KEY(modified_by)
+                          REFERENCES base_principal(id)
+);
+
+CREATE INDEX booking_series_span_gist ON booking_series USING gist (namespace_id, resource_id, span);
+
+-- Materialized edits of single occurrences, keyed by the occurrence's original start.
+CREATE TABLE booking_series_exception (
+  namespace_id   uuid NOT NULL,
+  series_id      uuid NOT NULL REFERENCES booking_series(id) ON DELETE CASCADE,
+  original_start timestamptz NOT NULL,
+  cancelled      boolean NOT NULL DEFAULT false,
+  start_at       timestamptz,            -- moved occurrence, NULL when cancelled
+  end_at         timestamptz,
+  title          text,
+  notes          text,
+  created_by     uuid not null,
+  created_date   timestamp with time zone not null,
+  PRIMARY KEY (namespace_id, series_id, original_start),
+  CHECK (cancelled OR end_at > start_at)
+);
+
+CREATE INDEX booking_series_exc_moved_idx ON booking_series_exception (namespace_id, series_id, start_at)
+  WHERE NOT cancelled;
+
 -- ===========================================================
 -- Audit log
 -- ===========================================================
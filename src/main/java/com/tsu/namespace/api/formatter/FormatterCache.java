@@ -0,0 +1,97 @@
+package com.tsu.namespace.api.formatter;
+
+import java.text.NumberFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formatters shared by every FormatterImpl, keyed by (locale, pattern, decimals).
+ * <p>
+ * DateTimeFormatter is immutable and shared as is. NumberFormat is not thread-safe: one prototype
+ * is built per key and each thread formats with its own clone of it. Patterns may come from
+ * callers, so each map stops caching at {@link #MAX_ENTRIES} and builds formatters on the fly.
+ */
+final class FormatterCache {
+
+    private static final int MAX_ENTRIES = 1024;
+    // fraction digits of the locale's default format; not a valid caller-supplied value
+    static final int LOCALE_DECIMALS = -1;
+
+    private static final Map<Key, DateTimeFormatter> DATE_TIME = new ConcurrentHashMap<>();
+    private static final Map<Key, NumberFormat> NUMBER_PROTOTYPES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<Key, NumberFormat>> NUMBER_CLONES = ThreadLocal.withInitial(HashMap::new);
+
+    private FormatterCache() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the pattern is invalid; nothing is cached then
+     */
+    static DateTimeFormatter dateTime(Locale locale, String pattern) {
+        Key key = new Key(Kind.DATE_TIME, locale, pattern, LOCALE_DECIMALS);
+        DateTimeFormatter formatter = DATE_TIME.get(key);
+        if (formatter != null) {
+            return formatter;
+        }
+        formatter = DateTimeFormatter.ofPattern(pattern, locale);
+        if (DATE_TIME.size() < MAX_ENTRIES) {
+            DATE_TIME.putIfAbsent(key, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * Locale number format; {@code decimals} fixes the fraction digits, {@link #LOCALE_DECIMALS}
+     * keeps the locale's. Callers clamp user-supplied digits to 0 or more.
+     */
+    static NumberFormat number(Locale locale, int decimals) {
+        return numberFormat(new Key(Kind.NUMBER, locale, null, decimals));
+    }
+
+    static NumberFormat percent(Locale locale, int decimals) {
+        return numberFormat(new Key(Kind.PERCENT, locale, null, decimals));
+    }
+
+    private static NumberFormat numberFormat(Key key) {
+        Map<Key, NumberFormat> clones = NUMBER_CLONES.get();
+        NumberFormat format = clones.get(key);
+        if (format != null) {
+            return format;
+        }
+        NumberFormat prototype = NUMBER_PROTOTYPES.get(key);
+        if (prototype == null) {
+            prototype = create(key);
+            if (NUMBER_PROTOTYPES.size() < MAX_ENTRIES) {
+                NUMBER_PROTOTYPES.putIfAbsent(key, prototype);
+            }
+        }
+        format = (NumberFormat) prototype.clone();
+        if (clones.size() < MAX_ENTRIES) {
+            clones.put(key, format);
+        }
+        return format;
+    }
+
+    private static NumberFormat create(Key key) {
+        NumberFormat format = key.kind() == Kind.PERCENT
+                ? NumberFormat.getPercentInstance(key.locale())
+                : NumberFormat.getNumberInstance(key.locale());
+        if (key.decimals() >= 0) {
+            format.setMinimumFractionDigits(key.decimals());
+            format.setMaximumFractionDigits(key.decimals());
+        }
+        return format;
+    }
+
+    private enum Kind {
+        DATE_TIME,
+        NUMBER,
+        PERCENT
+    }
+
+    private record Key(Kind kind, Locale locale, String pattern, int decimals) {
+    }
+}
@@ -5,7 +5,6 @@ import com.tsu.common.val.PlaceVal;
 import com.tsu.place.api.Place;
 import com.tsu.workspace.api.Formatter;
 
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
@@ -41,7 +40,7 @@ public record FormatterImpl(EffectiveLocaleSettings localeSettings) implements F
             return formatDateTime(dateTime);
         }
         try {
-            return java.time.format.DateTimeFormatter.ofPattern(pattern, localeSettings.locale()).format(dateTime);
+            return FormatterCache.dateTime(localeSettings.locale(), pattern).format(dateTime);
         } catch (Exception e) {
             // Fallback to default formatter if custom pattern fails
             return formatDateTime(dateTime);
@@ -53,17 +52,13 @@ public record FormatterImpl(EffectiveLocaleSettings localeSettings) implements F
     @Override
     public String formatNumber(Number number) {
         if (number == null) return "";
-        NumberFormat formatter = NumberFormat.getNumberInstance(localeSettings.locale());
-        return formatter.format(number);
+        return FormatterCache.number(localeSettings.locale(), FormatterCache.LOCALE_DECIMALS).format(number);
     }
 
     @Override
     public String formatNumber(Number number, int decimalPlaces) {
         if (number == null) return "";
-        NumberFormat formatter = NumberFormat.getNumberInstance(localeSettings.locale());
-        formatter.setMinimumFractionDigits(decimalPlaces);
-        formatter.setMaximumFractionDigits(decimalPlaces);
-        return formatter.format(number);
+        return FormatterCache.number(localeSettings.locale(), Math.max(0, decimalPlaces)).format(number);
     }
 
     @Override
@@ -73,10 +68,7 @@ public record FormatterImpl(EffectiveLocaleSettings localeSettings) implements F
 
     @Override
     public String formatPercentage(double value, int decimalPlaces) {
-        NumberFormat formatter = NumberFormat.getPercentInstance(localeSettings.locale());
-        formatter.setMinimumFractionDigits(decimalPlaces);
-        formatter.setMaximumFractionDigits(decimalPlaces);
-        return formatter.format(value);
+        return FormatterCache.percent(localeSettings.locale(), Math.max(0, decimalPlaces)).format(value);
     }
 
 
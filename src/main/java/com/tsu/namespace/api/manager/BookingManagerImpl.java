@@ -6,19 +6,31 @@ import com.tsu.auth.security.AppSecurityContext;
 import com.tsu.common.api.ActionPack;
 import com.tsu.namespace.api.*;
 import com.tsu.namespace.helper.BookingDbHelper;
+import com.tsu.namespace.helper.BookingExportDbHelper;
+import com.tsu.namespace.helper.BookingImportDbHelper;
+import com.tsu.namespace.helper.BookingSeriesDbHelper;
+import com.tsu.namespace.record.BookingImportReport;
+import com.tsu.namespace.record.BookingImportRow;
 import com.tsu.namespace.record.BookingHoldRecord;
 import com.tsu.namespace.record.BookingRecord;
+import com.tsu.namespace.record.BookingSeriesRecord;
 import com.tsu.namespace.record.BookingWaitlistRecord;
+import com.tsu.namespace.record.HoldConversionResult;
+import com.tsu.namespace.record.KeysetSlice;
+import com.tsu.namespace.record.SeriesCreationResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Implementation of BookingManager for namespace-scoped booking management.
@@ -30,6 +42,9 @@ public class BookingManagerImpl implements BookingManager {
     private final Namespace namespace;
     private final AppSecurityContext context;
     private final BookingDbHelper dbHelper;
+    private final BookingImportDbHelper importDbHelper;
+    private final BookingSeriesDbHelper seriesDbHelper;
+    private final BookingExportDbHelper exportDbHelper;
 
     @Override
     public Booking createBooking(UUID resourceId, UUID userId, LocalDateTime startAt,
@@ -53,6 +68,94 @@ public class BookingManagerImpl implements BookingManager {
         return record;
     }
 
+    /**
+     * Bulk import bookings with a single audit for the whole batch. Rejected rows are reported
+     * instead of failing the import.
+     */
+    public BookingImportReport importBookings(Stream<BookingImportRow> rows) {
+        log.debug("Importing bookings into namespace {}", namespace.getId());
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(NamespaceAction.CREATE_BOOKING, Map.of("mode", "import"))
+        );
+
+        return importDbHelper.importBookings(namespace.getId(), rows, context);
+    }
+
+    /**
+     * Create a recurring booking series. {@code startAt}/{@code endAt} are the first occurrence,
+     * {@code recurrenceRule} an RFC 5545 RRULE evaluated in {@code zone}. Nothing is stored when an
+     * occurrence conflicts; the conflicting starts are returned instead.
+     */
+    public SeriesCreationResult createSeries(UUID resourceId, UUID userId, LocalDateTime startAt, LocalDateTime endAt,
+                                             String recurrenceRule, ZoneId zone, String title, String notes,
+                                             BookingStatus status) {
+        log.debug("Creating booking series: resourceId={}, userId={}, rule={}", resourceId, userId, recurrenceRule);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(NamespaceAction.CREATE_BOOKING, Map.of(
+                        "resourceId", resourceId,
+                        "userId", userId,
+                        "startAt", startAt,
+                        "rrule", recurrenceRule
+                ))
+        );
+
+        return seriesDbHelper.createSeries(namespace.getId(), resourceId, userId, startAt, endAt,
+                recurrenceRule, zone, title, notes, status, context);
+    }
+
+    public Optional<BookingSeriesRecord> getSeries(UUID seriesId) {
+        return seriesDbHelper.findSeriesById(namespace.getId(), seriesId, context);
+    }
+
+    /**
+     * Cancel one occurrence of a series, identified by its original start.
+     */
+    public void cancelSeriesOccurrence(UUID seriesId, LocalDateTime originalStart) {
+        log.debug("Cancelling occurrence {} of series {}", originalStart, seriesId);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(isOwnSeries(seriesId) ? BookingPermission.CANCEL_OWN : BookingPermission.CANCEL_ANY,
+                        Map.of("seriesId", seriesId, "originalStart", originalStart))
+        );
+
+        seriesDbHelper.cancelOccurrence(namespace.getId(), seriesId, originalStart, context);
+    }
+
+    /**
+     * Move or retitle one occurrence of a series. Returns false when the new slot is taken.
+     */
+    public boolean updateSeriesOccurrence(UUID seriesId, LocalDateTime originalStart, LocalDateTime startAt,
+                                          LocalDateTime endAt, String title, String notes) {
+        log.debug("Updating occurrence {} of series {}", originalStart, seriesId);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(isOwnSeries(seriesId) ? BookingPermission.EDIT_OWN : BookingPermission.EDIT_ANY,
+                        Map.of("seriesId", seriesId, "originalStart", originalStart))
+        );
+
+        return seriesDbHelper.updateOccurrence(namespace.getId(), seriesId, originalStart,
+                startAt, endAt, title, notes, context);
+    }
+
+    public void deleteSeries(UUID seriesId) {
+        log.debug("Soft deleting booking series: {}", seriesId);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(isOwnSeries(seriesId) ? BookingPermission.CANCEL_OWN : BookingPermission.CANCEL_ANY,
+                        Map.of("seriesId", seriesId))
+        );
+
+        seriesDbHelper.deleteSeries(namespace.getId(), seriesId, context);
+    }
+
+    private boolean isOwnSeries(UUID seriesId) {
+        return seriesDbHelper.findSeriesById(namespace.getId(), seriesId, context)
+                .map(s -> s.getUserId().equals(context.getUserId()))
+                .orElse(false);
+    }
+
     @Override
     public Optional<Booking> getBooking(UUID bookingId) {
         return dbHelper.findBookingById(namespace.getId(), bookingId, context)
@@ -69,6 +172,19 @@ public class BookingManagerImpl implements BookingManager {
                 .map(r -> (Booking) r);
     }
 
+    /**
+     * Keyset listing ordered by start time. Pass the previous slice's next token, or null for the
+     * first slice; unlike the Pageable variant no total count is computed.
+     */
+    public KeysetSlice<Booking> getBookings(String continuation, int limit) {
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(BookingPermission.VIEW_ALL, Map.of())
+        );
+
+        return dbHelper.findAllBookings(namespace.getId(), continuation, limit, context)
+                .map(r -> (Booking) r);
+    }
+
     @Override
     public Page<Booking> getBookingsByResource(UUID resourceId, Pageable pageable) {
         namespace.getPermissionManager().auditAndCheckPermission(
@@ -79,6 +195,15 @@ public class BookingManagerImpl implements BookingManager {
                 .map(r -> (Booking) r);
     }
 
+    public KeysetSlice<Booking> getBookingsByResource(UUID resourceId, String continuation, int limit) {
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(BookingPermission.VIEW_ALL, Map.of("resourceId", resourceId))
+        );
+
+        return dbHelper.findBookingsByResource(namespace.getId(), resourceId, continuation, limit, context)
+                .map(r -> (Booking) r);
+    }
+
     @Override
     public Page<Booking> getBookingsByUser(UUID userId, Pageable pageable) {
         // Users can view their own bookings
@@ -92,6 +217,17 @@ public class BookingManagerImpl implements BookingManager {
                 .map(r -> (Booking) r);
     }
 
+    public KeysetSlice<Booking> getBookingsByUser(UUID userId, String continuation, int limit) {
+        boolean isOwn = userId.equals(context.getUserId());
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(isOwn ? BookingPermission.VIEW_OWN : BookingPermission.VIEW_ALL,
+                        Map.of("userId", userId))
+        );
+
+        return dbHelper.findBookingsByUser(namespace.getId(), userId, continuation, limit, context)
+                .map(r -> (Booking) r);
+    }
+
     @Override
     public Page<Booking> getBookingsByStatus(BookingStatus status, Pageable pageable) {
         namespace.getPermissionManager().auditAndCheckPermission(
@@ -114,6 +250,23 @@ public class BookingManagerImpl implements BookingManager {
                 .toList();
     }
 
+    /**
+     * Stream bookings overlapping {@code [startAt, endAt)} to {@code out} without building them in
+     * memory. A null {@code resourceId} exports every resource. Returns the number of rows written.
+     */
+    public long exportBookings(UUID resourceId, LocalDateTime startAt, LocalDateTime endAt,
+                               BookingExportDbHelper.Format format, OutputStream out) {
+        log.debug("Exporting bookings: resourceId={}, start={}, end={}, format={}", resourceId, startAt, endAt, format);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(BookingPermission.VIEW_ALL, resourceId != null
+                        ? Map.of("resourceId", resourceId, "format", format)
+                        : Map.of("format", format))
+        );
+
+        return exportDbHelper.exportBookings(namespace.getId(), resourceId, startAt, endAt, format, out);
+    }
+
     @Override
     public Page<Booking> getUpcomingBookings(UUID userId, LocalDateTime fromDate, Pageable pageable) {
         boolean isOwn = userId.equals(context.getUserId());
@@ -126,6 +279,17 @@ public class BookingManagerImpl implements BookingManager {
                 .map(r -> (Booking) r);
     }
 
+    public KeysetSlice<Booking> getUpcomingBookings(UUID userId, LocalDateTime fromDate, String continuation, int limit) {
+        boolean isOwn = userId.equals(context.getUserId());
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(isOwn ? BookingPermission.VIEW_OWN : BookingPermission.VIEW_ALL,
+                        Map.of("userId", userId))
+        );
+
+        return dbHelper.findUpcomingBookings(namespace.getId(), userId, fromDate, continuation, limit, context)
+                .map(r -> (Booking) r);
+    }
+
     @Override
     public Booking updateBooking(UUID bookingId, LocalDateTime startAt, LocalDateTime endAt,
                                  String title, String notes) {
@@ -285,6 +449,22 @@ public class BookingManagerImpl implements BookingManager {
         dbHelper.deleteHold(namespace.getId(), holdId);
     }
 
+    /**
+     * Atomically turn a hold into a booking. Conflicts are reported through the result outcome.
+     */
+    public HoldConversionResult convertHoldToBooking(UUID holdId, String title, String notes, BookingStatus status) {
+        log.debug("Converting booking hold: {}", holdId);
+
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(NamespaceAction.CREATE_BOOKING, Map.of(
+                        "holdId", holdId,
+                        "status", status
+                ))
+        );
+
+        return dbHelper.convertHoldToBooking(namespace.getId(), holdId, title, notes, status, context);
+    }
+
     @Override
     public int cleanupExpiredHolds() {
         log.debug("Cleaning up expired holds");
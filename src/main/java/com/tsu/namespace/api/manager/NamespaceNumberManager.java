@@ -8,7 +8,6 @@ import com.tsu.namespace.api.namespace.NamespaceObjectFactory;
 import com.tsu.auth.permissions.NamespaceAction;
 import com.tsu.namespace.helper.NumberDbHelper;
 import com.tsu.namespace.record.NumberRecord;
-import com.tsu.namespace.record.NumberSeqRecord;
 import com.tsu.workspace.request.AddNumber;
 import com.tsu.namespace.val.NumberSeqVal;
 import com.tsu.common.api.ActionPack;
@@ -74,10 +73,7 @@ public class NamespaceNumberManager implements NumberManager {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     @Override
     public String next(String prefix) {
-        NumberSeqRecord numberSeq = dbHelper.findNumberSeqByNamespaceIdAndPrefix(context.getNamespaceId(), prefix)
-                .orElseGet(() ->
-                        dbHelper.addNumberSequence(context.getNamespaceId(), prefix));
-        int next = numberSeq.increment();
+        int next = dbHelper.nextSequence(context.getNamespaceId(), prefix);
         return Optional.ofNullable(prefix).orElse("") + next;
     }
 
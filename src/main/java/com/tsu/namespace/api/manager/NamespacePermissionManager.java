@@ -6,12 +6,11 @@ import com.tsu.auth.api.PermissionManager;
 import com.tsu.auth.security.NamespaceContext;
 import com.tsu.common.api.ActionPack;
 import com.tsu.common.exception.PermissionDeniedException;
-import com.tsu.common.val.PermissionVal;
 import com.tsu.namespace.api.Namespace;
 import com.tsu.namespace.api.NamespaceUser;
 import com.tsu.namespace.helper.AppDbHelper;
+import com.tsu.namespace.helper.PermissionDecisionCache;
 import com.tsu.namespace.val.NamespaceVal;
-import com.tsu.util.Permissions;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
@@ -22,56 +21,53 @@ public class NamespacePermissionManager implements PermissionManager {
     private final Namespace namespace;
     private final NamespaceContext context;
     private final AppDbHelper appDbHelper;
-    private final Map<UUID, Permissions> permissions;
+    private final PermissionDecisionCache decisionCache;
+    private final Map<UUID, PermissionDecisionCache.Grants> grants;
 
     public NamespacePermissionManager(NamespaceContext context,
-                                      AppDbHelper appDbHelper
+                                      AppDbHelper appDbHelper,
+                                      PermissionDecisionCache decisionCache
     ) {
         this.namespace = context.getNamespace();
         this.context = context;
         this.appDbHelper = appDbHelper;
-        this.permissions = new HashMap<>();
+        this.decisionCache = decisionCache;
+        this.grants = new HashMap<>();
     }
 
 
-    private List<PermissionVal> findNamespacePermissions(BasePrincipal base) {
-        return permissions.computeIfAbsent(base.id(), uuid -> {
-            Permissions permissions = new Permissions();
-            namespace.findUser(BasePrincipal.of(uuid))
-                    .filter(NamespaceUser::isValid)
-                    .ifPresent(user -> {
-                        user.getRole()
-                                .ifPresent(role -> permissions.setPermissions(role.getPermissions()));
-                        permissions.setPermissions(user.getPermissions());
-                    });
-            return permissions;
-        }).findPermissions();
+    /**
+     * Effective grants of a principal: the role's, overridden by the user's own entries.
+     * Compiled grants come from the shared cache; this map only saves the user lookup within
+     * one request.
+     */
+    private PermissionDecisionCache.Grants findNamespaceGrants(BasePrincipal base) {
+        return grants.computeIfAbsent(base.id(), uuid -> namespace.findUser(BasePrincipal.of(uuid))
+                .filter(NamespaceUser::isValid)
+                .map(user -> user.getRole()
+                        .map(role -> decisionCache.roleGrants(namespace.getId(), role.getId(), role::getPermissions))
+                        .orElse(PermissionDecisionCache.Grants.NONE)
+                        .overlay(decisionCache.userGrants(namespace.getId(), user.getId(), user::getPermissions)))
+                .orElse(PermissionDecisionCache.Grants.NONE));
     }
 
 
-    private boolean isAllowed(Permission permission, List<PermissionVal> userPermissions) {
-        boolean isAllowed = userPermissions
-                .stream()
-                .filter(allowed -> Objects.equals(permission.getName(), allowed.permission()))
-                .map(PermissionVal::isAllow)
-                .findFirst()
-                .orElse(false);
-        if (!isAllowed) {
-            log.warn("Permission not allowed: {}", permission);
+    private boolean isAllowed(BasePrincipal user, long[] required) {
+        NamespaceVal val = namespace.getValue();
+        if (Objects.equals(val.owner().id(), user.id())) {
+            return true;
         }
-        return isAllowed;
+        return findNamespaceGrants(user).allows(required);
     }
 
 
     @Override
     public boolean allow(BasePrincipal user, Permission... permissions) {
-        NamespaceVal val = namespace.getValue();
-        if (Objects.equals(val.owner().id(), user.id())) {
-            return true;
+        boolean isAllowed = isAllowed(user, PermissionDecisionCache.mask(Arrays.asList(permissions)));
+        if (!isAllowed) {
+            log.warn("Permission not allowed: {}", Arrays.toString(permissions));
         }
-        List<PermissionVal> grantedPermissions = findNamespacePermissions(user);
-        return Arrays.stream(permissions)
-                .allMatch(permission -> isAllowed(permission, grantedPermissions));
+        return isAllowed;
     }
 
     @Override
@@ -90,7 +86,9 @@ public class NamespacePermissionManager implements PermissionManager {
     @Override
     public void auditAndCheckPermission(ActionPack action) {
         appDbHelper.audit(namespace.getId(), namespace.getNode().getId(), action, context);
-        if (!allow(context.getPrincipal(), action.action().getRequiredPermissions().toArray(Permission[]::new))) {
+        long[] required = decisionCache.requiredMask(action.action(), () -> action.action().getRequiredPermissions());
+        if (!isAllowed(context.getPrincipal(), required)) {
+            log.warn("Permission not allowed: {}", action.action());
             throw new PermissionDeniedException("Permission denied");
         }
     }
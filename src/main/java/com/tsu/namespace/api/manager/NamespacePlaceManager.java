@@ -7,6 +7,7 @@ import com.tsu.place.api.Place;
 import com.tsu.place.api.PlaceManager;
 import com.tsu.namespace.api.namespace.PlaceImpl;
 import com.tsu.auth.permissions.NamespaceAction;
+import com.tsu.namespace.helper.PlaceClusterDbHelper;
 import com.tsu.namespace.helper.PlaceDbHelper;
 import com.tsu.namespace.record.PlaceRecord;
 import com.tsu.workspace.request.AddPlace;
@@ -24,14 +25,17 @@ public class NamespacePlaceManager implements PlaceManager {
     private final Namespace namespace;
     private final AppSecurityContext context;
     private final PlaceDbHelper dbHelper;
+    private final PlaceClusterDbHelper clusterDbHelper;
     private final NamespaceObjectFactory factory;
 
 
-    public NamespacePlaceManager(Namespace namespace, AppSecurityContext context, PlaceDbHelper dbHelper, NamespaceObjectFactory factory) {
+    public NamespacePlaceManager(Namespace namespace, AppSecurityContext context, PlaceDbHelper dbHelper,
+                                 PlaceClusterDbHelper clusterDbHelper, NamespaceObjectFactory factory) {
         this.namespace = namespace;
         this.context = context;
         this.factory = factory;
         this.dbHelper = dbHelper;
+        this.clusterDbHelper = clusterDbHelper;
     }
 
     @Override
@@ -49,9 +53,18 @@ public class NamespacePlaceManager implements PlaceManager {
                 .throwIfErrors();
         namespace.getPermissionManager().auditAndCheckPermission(new ActionPack(NamespaceAction.SAVE_PLACE,
                 Map.of("place", add, "props", props)));
-        PlaceRecord placeRecord = dbHelper.addPlace(add.getCountry().strip(), add.getCounty(), add.getCity().strip(), add.getBuilding(),
+        PlaceRecord placeRecord = dbHelper.addPlace(namespace.getId(), add.getCountry().strip(), add.getCounty(), add.getCity().strip(), add.getBuilding(),
                 add.getAddress().strip(), add.getPostCode(), add.getLat(), add.getLng(),
                 add.getNotes(), props, context);
         return factory.build(namespace, placeRecord);
     }
+
+    /**
+     * Active places inside the map viewport at {@code zoom}, as cluster centroids with counts, or as
+     * places once few enough are in view; {@code type} null for all types.
+     */
+    public PlaceClusterDbHelper.PlaceClusters clusterPlaces(double minLat, double maxLat, double minLng, double maxLng,
+                                                           int zoom, String type) {
+        return clusterDbHelper.clusterPlaces(namespace.getId(), minLat, maxLat, minLng, maxLng, zoom, type, context);
+    }
 }
@@ -19,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -254,4 +255,20 @@ public class ResourceManagerImpl implements ResourceManager {
                 .map(r -> (TimeSlot) r)
                 .toList();
     }
+
+    /**
+     * Batch availability check: which of the given resources are free for the whole range.
+     * One permission audit and two queries regardless of the number of resources.
+     */
+    public List<UUID> findAvailableResources(Collection<UUID> resourceIds, LocalDateTime startAt, LocalDateTime endAt) {
+        namespace.getPermissionManager().auditAndCheckPermission(
+                new ActionPack(NamespaceAction.VIEW_RESOURCES, Map.of(
+                        "resourceCount", resourceIds.size(),
+                        "startAt", startAt,
+                        "endAt", endAt
+                ))
+        );
+
+        return dbHelper.findAvailableResources(namespace.getId(), resourceIds, startAt, endAt);
+    }
 }
@@ -1,40 +1,56 @@
 package com.tsu.namespace.api.namespace;
 
 import com.tsu.namespace.api.NamespaceUsers;
+import com.tsu.namespace.helper.NamespaceDbHelper;
 import com.tsu.namespace.val.NspUsrVal;
-import com.tsu.common.data.Pair;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Namespace users backed by the process-wide NamespaceUserDirectory: lookups fetch only the
+ * users not cached yet, and the full member list is loaded only for {@link #getUserMap()}.
+ */
 @Slf4j
 public class CachedNamespaceUsers implements NamespaceUsers {
 
-    private final Map<UUID, NspUsrVal> byUUID;
-    private final Map<Integer, NspUsrVal> byId;
+    private final UUID namespaceId;
+    private final NamespaceDbHelper namespaceDbHelper;
 
-    public CachedNamespaceUsers(List<NspUsrVal> users) {
-        this.byUUID = users.stream()
-                .collect(Collectors.toMap(NspUsrVal::principalId, u -> u));
-        this.byId = users
-                .stream()
-                .collect(Collectors.toMap(NspUsrVal::userId, u -> u));
+    public CachedNamespaceUsers(UUID namespaceId, NamespaceDbHelper namespaceDbHelper) {
+        this.namespaceId = namespaceId;
+        this.namespaceDbHelper = namespaceDbHelper;
     }
 
     @Override
     public Optional<NspUsrVal> find(Integer userId) {
-        return Optional.ofNullable(byId.get(userId));
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(namespaceDbHelper.resolveNamespaceUsers(namespaceId, List.of(userId)).get(userId));
     }
 
     @Override
     public Optional<NspUsrVal> find(UUID principalId) {
-        return Optional.ofNullable(byUUID.get(principalId));
+        if (principalId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(namespaceDbHelper.resolveNamespaceUsersByPrincipal(namespaceId, List.of(principalId)).get(principalId));
+    }
+
+    /**
+     * Resolve many users in one round trip; ids that are not members are absent from the result.
+     */
+    public Map<Integer, NspUsrVal> resolve(Collection<Integer> userIds) {
+        return namespaceDbHelper.resolveNamespaceUsers(namespaceId, userIds);
+    }
+
+    public Map<UUID, NspUsrVal> resolvePrincipals(Collection<UUID> principalIds) {
+        return namespaceDbHelper.resolveNamespaceUsersByPrincipal(namespaceId, principalIds);
     }
 
     @Override
     public Map<Integer, NspUsrVal> getUserMap() {
-        return Collections.unmodifiableMap(this.byId);
+        return namespaceDbHelper.findNamespaceUserMap(namespaceId);
     }
 }
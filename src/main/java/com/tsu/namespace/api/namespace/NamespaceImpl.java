@@ -22,6 +22,7 @@ import com.tsu.enums.BaseParamName;
 import com.tsu.namespace.api.*;
 import com.tsu.namespace.api.formatter.FormatterImpl;
 import com.tsu.namespace.api.manager.*;
+import com.tsu.namespace.entities.NamespaceUserViewTb;
 import com.tsu.namespace.helper.*;
 import com.tsu.namespace.record.NamespaceRecord;
 import com.tsu.namespace.record.NamespaceRoleRecord;
@@ -41,9 +42,12 @@ import org.springframework.data.domain.Pageable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -64,18 +68,25 @@ public class NamespaceImpl implements Namespace {
     private final LazyCacheLoader<EntityManager> entityManager;
     private final LazyCacheLoader<NumberManager> numberManager;
     private final LazyCacheLoader<TextManager> textManager;
-    private final LazyCacheLoader<NamespaceUsers> namespaceUsers;
+    private final CachedNamespaceUsers namespaceUsers;
     private final AppSecurityContext context;
     private final NamespaceObjectFactory factory;
     private final NamespaceContext namespaceContext;
+    // settings and formatter built from the namespace's current locale columns
+    private volatile LocaleSnapshot locale;
 
 
     public NamespaceImpl(AppSecurityContext context, NamespaceUser user, NamespaceRecord value, NamespaceDbHelper namespaceDbHelper,
                          EntityDbHelper entityDbHelper,
                          NumberDbHelper numberDbHelper, BucketService bucketService,
                          PlaceDbHelper placeDbHelper,
+                         PlaceClusterDbHelper placeClusterDbHelper,
                          ResourceDbHelper resourceDbHelper,
                          BookingDbHelper bookingDbHelper,
+                         BookingImportDbHelper bookingImportDbHelper,
+                         BookingSeriesDbHelper bookingSeriesDbHelper,
+                         BookingExportDbHelper bookingExportDbHelper,
+                         PermissionDecisionCache permissionDecisionCache,
                          SubscriptionDbHelper subscriptionDbHelper, AppDbHelper appDbHelper, IDGeneratorService idGeneratorService,
                          NamespaceObjectFactory factory) {
         this.value = value;
@@ -91,13 +102,14 @@ public class NamespaceImpl implements Namespace {
         this.numberManager = LazyCacheLoader.of(() -> new NamespaceNumberManager(namespaceContext, numberDbHelper, factory));
         this.entityManager = LazyCacheLoader.of(() -> new NamespaceEntityManager(namespaceContext,
                 entityDbHelper, factory));
-        this.permissionManager = new NamespacePermissionManager(namespaceContext, appDbHelper);
-        this.placeManager = LazyCacheLoader.of(() -> new NamespacePlaceManager(this, context, placeDbHelper, factory));
+        this.permissionManager = new NamespacePermissionManager(namespaceContext, appDbHelper, permissionDecisionCache);
+        this.placeManager = LazyCacheLoader.of(() -> new NamespacePlaceManager(this, context, placeDbHelper, placeClusterDbHelper, factory));
         this.resourceManager = LazyCacheLoader.of(() -> new ResourceManagerImpl(this, context, resourceDbHelper, idGeneratorService));
-        this.bookingManager = LazyCacheLoader.of(() -> new BookingManagerImpl(this, context, bookingDbHelper));
+        this.bookingManager = LazyCacheLoader.of(() -> new BookingManagerImpl(this, context, bookingDbHelper, bookingImportDbHelper,
+                bookingSeriesDbHelper, bookingExportDbHelper));
         this.calendarManager = LazyCacheLoader.of(() -> new NamespaceCalendarManager(this, context));
         this.textManager = LazyCacheLoader.of(() -> new EntryTextManager(bucket.get().getRoot(), permissionManager));
-        this.namespaceUsers = LazyCacheLoader.of(() -> new CachedNamespaceUsers(namespaceDbHelper.findNamespaceJoinedUserInfoByNamespaceId(value.getId()).toList()));
+        this.namespaceUsers = new CachedNamespaceUsers(value.getId(), namespaceDbHelper);
     }
 
 
@@ -255,7 +267,7 @@ public class NamespaceImpl implements Namespace {
 
     @Override
     public NamespaceUsers getNamespaceUsers() {
-        return namespaceUsers.get();
+        return namespaceUsers;
     }
 
     @Override
@@ -263,35 +275,43 @@ public class NamespaceImpl implements Namespace {
         if (filter == null) {
             filter = UserFilter.builder().build();
         }
-        NamespaceUsers users = getNamespaceUsers();
-        return namespaceDbHelper.queryUsers(getId(), filter, pageable, namespaceContext)
-                .map(tb -> new NamespaceUserMvVal(
-                        tb.getId(),
-                        tb.getRole(),
-                        tb.getDisplayName(),
-                        tb.getType(),
-                        tb.isActive(),
-                        tb.getActivationDate(),
-                        tb.getExpirationDate(),
-                        users.find(tb.getApprovedBy()).orElse(NspUsrVal.EMPTY).toDisplay(),
-                        tb.getApprovedDate(),
-                        users.find(tb.getCreatedBy()).orElse(NspUsrVal.EMPTY).toDisplay(),
-                        tb.getCreatedDate(),
-                        users.find(tb.getModifiedBy()).orElse(NspUsrVal.EMPTY).toDisplay(),
-                        tb.getModifiedDate(),
-                        tb.getFirstName(),
-                        tb.getLastName(),
-                        tb.getEmail(),
-                        tb.getPhone(),
-                        tb.getImageUrl()
-                ));
+        Page<NamespaceUserViewTb> page = namespaceDbHelper.queryUsers(getId(), filter, pageable, namespaceContext);
+        // only the principals named on this page, in one lookup
+        Set<UUID> principals = new HashSet<>();
+        for (NamespaceUserViewTb tb : page) {
+            principals.add(tb.getApprovedBy());
+            principals.add(tb.getCreatedBy());
+            principals.add(tb.getModifiedBy());
+        }
+        principals.remove(null);
+        Map<UUID, NspUsrVal> users = namespaceUsers.resolvePrincipals(principals);
+        return page.map(tb -> new NamespaceUserMvVal(
+                tb.getId(),
+                tb.getRole(),
+                tb.getDisplayName(),
+                tb.getType(),
+                tb.isActive(),
+                tb.getActivationDate(),
+                tb.getExpirationDate(),
+                users.getOrDefault(tb.getApprovedBy(), NspUsrVal.EMPTY).toDisplay(),
+                tb.getApprovedDate(),
+                users.getOrDefault(tb.getCreatedBy(), NspUsrVal.EMPTY).toDisplay(),
+                tb.getCreatedDate(),
+                users.getOrDefault(tb.getModifiedBy(), NspUsrVal.EMPTY).toDisplay(),
+                tb.getModifiedDate(),
+                tb.getFirstName(),
+                tb.getLastName(),
+                tb.getEmail(),
+                tb.getPhone(),
+                tb.getImageUrl()
+        ));
     }
 
     // ========== LocaleSettings Implementation ==========
 
     @Override
     public Formatter getFormatter() {
-        return new FormatterImpl(getSettings());
+        return localeSnapshot().formatter();
     }
 
 
@@ -325,12 +345,7 @@ public class NamespaceImpl implements Namespace {
 
     @Override
     public EffectiveLocaleSettings getSettings() {
-        return new EffectiveLocaleSettingsBuilder()
-                .languageTag(value.getLanguageTag())
-                .timezoneId(value.getTimezoneId())
-                .datePattern(value.getDatePattern())
-                .datetimePattern(value.getDatetimePattern())
-                .build();
+        return localeSnapshot().settings();
     }
 
     @Override
@@ -350,4 +365,35 @@ public class NamespaceImpl implements Namespace {
         value.persist();
     }
 
+    /**
+     * Rebuilt only when one of the locale columns differs from the ones it was built from, so
+     * every setter above, and any other write to the record, retires it.
+     */
+    private LocaleSnapshot localeSnapshot() {
+        LocaleSnapshot snapshot = locale;
+        if (snapshot == null || !snapshot.matches(value)) {
+            EffectiveLocaleSettings settings = new EffectiveLocaleSettingsBuilder()
+                    .languageTag(value.getLanguageTag())
+                    .timezoneId(value.getTimezoneId())
+                    .datePattern(value.getDatePattern())
+                    .datetimePattern(value.getDatetimePattern())
+                    .build();
+            snapshot = new LocaleSnapshot(value.getLanguageTag(), value.getTimezoneId(), value.getDatePattern(),
+                    value.getDatetimePattern(), settings, new FormatterImpl(settings));
+            locale = snapshot;
+        }
+        return snapshot;
+    }
+
+    private record LocaleSnapshot(String languageTag, String timezoneId, String datePattern, String datetimePattern,
+                                  EffectiveLocaleSettings settings, Formatter formatter) {
+
+        boolean matches(NamespaceRecord record) {
+            return Objects.equals(languageTag, record.getLanguageTag())
+                    && Objects.equals(timezoneId, record.getTimezoneId())
+                    && Objects.equals(datePattern, record.getDatePattern())
+                    && Objects.equals(datetimePattern, record.getDatetimePattern());
+        }
+    }
+
 }
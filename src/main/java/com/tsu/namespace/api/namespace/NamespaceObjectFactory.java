@@ -42,15 +42,30 @@ public class NamespaceObjectFactory {
     @Autowired
     private PlaceDbHelper placeDbHelper;
 
+    @Autowired
+    private PlaceClusterDbHelper placeClusterDbHelper;
+
     @Autowired
     private ResourceDbHelper resourceDbHelper;
 
     @Autowired
     private BookingDbHelper bookingDbHelper;
 
+    @Autowired
+    private BookingImportDbHelper bookingImportDbHelper;
+
+    @Autowired
+    private BookingSeriesDbHelper bookingSeriesDbHelper;
+
+    @Autowired
+    private BookingExportDbHelper bookingExportDbHelper;
+
     @Autowired
     private AppDbHelper appDbHelper;
 
+    @Autowired
+    private PermissionDecisionCache permissionDecisionCache;
+
 
     @Autowired
     private IDGeneratorService idGeneratorService;
@@ -58,7 +73,8 @@ public class NamespaceObjectFactory {
     public Namespace build(NamespaceRecord record, NamespaceUser user, AppSecurityContext context) {
         return new NamespaceImpl(context, user, record, namespaceDbHelper,
                 entityDbHelper, numberDbHelper, bucketService,
-                placeDbHelper, resourceDbHelper, bookingDbHelper,
+                placeDbHelper, placeClusterDbHelper, resourceDbHelper, bookingDbHelper, bookingImportDbHelper, bookingSeriesDbHelper,
+                bookingExportDbHelper, permissionDecisionCache,
                 subscriptionDbHelper, appDbHelper, idGeneratorService, this);
     }
 
@@ -3,17 +3,18 @@ package com.tsu.namespace.api.namespace;
 import com.tsu.namespace.api.NextNumberRequest;
 import com.tsu.namespace.api.NumberSeq;
 import com.tsu.namespace.helper.NumberDbHelper;
+import com.tsu.namespace.helper.support.SequenceFormat;
 import com.tsu.namespace.record.NumberRecord;
-import com.tsu.namespace.record.NumberSeqRecord;
 import com.tsu.namespace.val.NumberSeqVal;
 import com.tsu.auth.security.NamespaceContext;
 import com.tsu.util.NumberPattern;
-import com.tsu.util.TextUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
@@ -25,20 +26,20 @@ public class NumberSeqImpl implements NumberSeq {
     private final NumberRecord record;
     private final NumberDbHelper dbHelper;
     private final NamespaceContext context;
+    // prefix/suffix compiled once per definition; recompiled if the record's patterns change
+    private volatile CompiledPatterns patterns;
 
 
     @Override
     public String next(NextNumberRequest request) {
-        LocalDateTime baseDate = Optional.ofNullable(request.getBaseDate()).orElse(LocalDateTime.now());
-        String prefix = NumberPattern.compile(record.getPrefix()).replace(baseDate, request.getParams());
-        Integer next = getNext(prefix);
-        StringBuilder value = new StringBuilder(prefix);
-        String suffix = NumberPattern.compile(Optional.ofNullable(record.getSuffix()).orElse("")).replace(baseDate, request.getParams());
-        String nextValue = value.append(TextUtils.paddingHead(record.getLength(), String.valueOf(next), "0")) //
-                .append(suffix) //
-                .toString();
-        dbHelper.addHistory(context.getNamespaceId(), nextValue, context);
-        return nextValue;
+        return dbHelper.issueNumber(context.getNamespaceId(), record.getType(), format(request), context);
+    }
+
+    /**
+     * {@code count} consecutive numbers for the same request, taken with one sequence update.
+     */
+    public List<String> nextN(NextNumberRequest request, int count) {
+        return dbHelper.issueNumbers(context.getNamespaceId(), record.getType(), format(request), count, context);
     }
 
     @Override
@@ -46,12 +47,25 @@ public class NumberSeqImpl implements NumberSeq {
         return record.getValue();
     }
 
-    private int getNext(String prefix) {
-        NumberSeqRecord numberSeqRecord = dbHelper.findNumberSeqByNamespaceIdAndPrefix(context.getNamespaceId(), prefix)
-                .orElseGet(() -> dbHelper.addNumberSequence(context.getNamespaceId(), prefix));
-        int next = numberSeqRecord.increment();
-        numberSeqRecord.persist();
-        return next;
+    private SequenceFormat format(NextNumberRequest request) {
+        LocalDateTime baseDate = Optional.ofNullable(request.getBaseDate()).orElse(LocalDateTime.now());
+        CompiledPatterns compiled = compiledPatterns();
+        return new SequenceFormat(compiled.prefix().replace(baseDate, request.getParams()),
+                compiled.suffix().replace(baseDate, request.getParams()), record.getLength());
+    }
+
+    private CompiledPatterns compiledPatterns() {
+        String prefix = record.getPrefix();
+        String suffix = Optional.ofNullable(record.getSuffix()).orElse("");
+        CompiledPatterns compiled = patterns;
+        if (compiled == null || !Objects.equals(compiled.prefixSource(), prefix) || !compiled.suffixSource().equals(suffix)) {
+            compiled = new CompiledPatterns(prefix, suffix, NumberPattern.compile(prefix), NumberPattern.compile(suffix));
+            patterns = compiled;
+        }
+        return compiled;
+    }
+
+    private record CompiledPatterns(String prefixSource, String suffixSource, NumberPattern prefix, NumberPattern suffix) {
     }
 
 
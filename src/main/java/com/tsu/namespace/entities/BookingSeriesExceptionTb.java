@@ -0,0 +1,45 @@
+package com.tsu.namespace.entities;
+
+import com.tsu.namespace.entities.id.BookingSeriesExceptionId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "booking_series_exception")
+public class BookingSeriesExceptionTb {
+
+    @EmbeddedId
+    private BookingSeriesExceptionId id;
+
+    @Column(name = "cancelled", nullable = false)
+    private boolean cancelled;
+
+    /**
+     * Moved occurrence; null when cancelled
+     */
+    @Column(name = "start_at")
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "notes")
+    private String notes;
+
+    @Column(name = "created_by", nullable = false)
+    private UUID createdBy;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,83 @@
+package com.tsu.namespace.entities;
+
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.entities.id.BookingSeriesId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "booking_series")
+public class BookingSeriesTb {
+
+    @EmbeddedId
+    private BookingSeriesId id;
+
+    @Column(name = "resource_id", nullable = false)
+    private UUID resourceId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "notes")
+    private String notes;
+
+    /**
+     * Recurrence rule, RFC 5545 subset (see RecurrenceRule)
+     */
+    @Column(name = "rrule", nullable = false)
+    private String rrule;
+
+    /**
+     * Zone the rule is evaluated in, so local times survive DST changes
+     */
+    @Column(name = "timezone", nullable = false)
+    private String timezone;
+
+    /**
+     * First occurrence
+     */
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    @Column(name = "end_at", nullable = false)
+    private LocalDateTime endAt;
+
+    /**
+     * End of the last occurrence, null for open-ended series
+     */
+    @Column(name = "span_end")
+    private LocalDateTime spanEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private BookingStatus status = BookingStatus.CONFIRMED;
+
+    @Column(name = "deleted_date")
+    private LocalDateTime deletedDate;
+
+    @Column(name = "created_by", nullable = false)
+    private UUID createdBy;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "modified_by", nullable = false)
+    private UUID modifiedBy;
+
+    @Column(name = "modified_date", nullable = false)
+    private LocalDateTime modifiedDate;
+
+    // Note: span field is a generated column (tstzrange) in PostgreSQL
+    // Not mapped in JPA as it's automatically maintained by the database
+}
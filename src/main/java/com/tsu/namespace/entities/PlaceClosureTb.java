@@ -0,0 +1,37 @@
+package com.tsu.namespace.entities;
+
+import com.tsu.namespace.entities.id.PlaceClosureId;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * One (ancestor, descendant) pair of the place hierarchy, including each place paired with itself
+ * at depth 0. Rows are maintained by triggers on place (see doc/place-schema.sql) and are read-only here.
+ */
+@Data
+@ToString
+@EqualsAndHashCode
+@Entity
+@Table(name = "place_closure")
+@IdClass(PlaceClosureId.class)
+public class PlaceClosureTb {
+
+    @Id
+    @Column(name = "namespace_id", nullable = false, updatable = false, insertable = false)
+    private UUID namespaceId;
+
+    @Id
+    @Column(name = "ancestor_id", nullable = false, updatable = false, insertable = false)
+    private UUID ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", nullable = false, updatable = false, insertable = false)
+    private UUID descendantId;
+
+    @Column(name = "depth", nullable = false, updatable = false, insertable = false)
+    private int depth;  // 0 for the place itself, 1 for a child, ...
+}
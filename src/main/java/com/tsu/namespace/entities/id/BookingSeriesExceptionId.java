@@ -0,0 +1,30 @@
+package com.tsu.namespace.entities.id;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class BookingSeriesExceptionId implements Serializable {
+
+    @Column(name = "namespace_id", nullable = false)
+    private UUID namespaceId;
+
+    @Column(name = "series_id", nullable = false)
+    private UUID seriesId;
+
+    /**
+     * Start of the occurrence as generated by the rule, before any edit
+     */
+    @Column(name = "original_start", nullable = false)
+    private LocalDateTime originalStart;
+}
@@ -0,0 +1,20 @@
+package com.tsu.namespace.entities.id;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Composite ID for PlaceClosure entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceClosureId implements Serializable {
+    private UUID namespaceId;
+    private UUID ancestorId;
+    private UUID descendantId;
+}
@@ -5,7 +5,6 @@ import com.tsu.common.jpa.JsonValueUtils;
 import com.tsu.auth.security.NamespaceContext;
 import com.tsu.namespace.entities.EventAuditTb;
 import com.tsu.namespace.entities.id.EventAuditId;
-import com.tsu.namespace.repo.EventAuditRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -16,7 +15,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AppDbHelper {
 
-    private final EventAuditRepository auditRepository;
+    private final AuditWriter auditWriter;
 
     public void audit(UUID namespaceId, UUID entryId, ActionPack pack, NamespaceContext context) {
         EventAuditTb audit = new EventAuditTb();
@@ -29,6 +28,6 @@ public class AppDbHelper {
         audit.setEntryId(entryId);
         audit.setCreatedBy(context.getNamespaceUserId());
         audit.setCreatedDate(LocalDateTime.now());
-        auditRepository.save(audit);
+        auditWriter.write(audit);
     }
 }
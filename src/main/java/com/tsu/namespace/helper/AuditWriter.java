@@ -0,0 +1,309 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.entities.EventAuditTb;
+import com.tsu.namespace.helper.support.RingBuffer;
+import com.tsu.namespace.repo.EventAuditRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write path for event_audit rows.
+ * <p>
+ * In {@link Durability#SYNC} rows are saved inline, as part of the caller's work. The other modes
+ * enqueue rows into a lock-free {@link RingBuffer} that a single writer thread drains into JDBC
+ * batches, one transaction per batch:
+ * <ul>
+ *   <li>{@link Durability#ASYNC} (default) - the row is enqueued once the caller's transaction has
+ *   committed, or at once outside a transaction, and the caller does not wait. A rolled-back
+ *   transaction leaves no audit row. Rows not yet written when the process dies are lost; the
+ *   window is bounded by {@code capacity} rows and {@code flush-interval-millis}. A full buffer
+ *   makes callers wait up to {@code offer-timeout-millis}, after which the row is dropped and
+ *   counted.</li>
+ *   <li>{@link Durability#GROUP_COMMIT} - a caller outside a transaction waits until the batch
+ *   holding its row has committed, so concurrent callers share one commit. A caller inside a
+ *   transaction saves the row inline instead: it already holds a pooled connection, and waiting
+ *   on the writer, which needs one of its own, could exhaust the pool. A full buffer falls back
+ *   to an inline save.</li>
+ * </ul>
+ * Commit semantics: only inline saves commit or roll back with the caller's transaction. Batched
+ * rows commit in the writer's own transaction, after the business write, and a failed batch
+ * never rolls the business write back.
+ */
+@Slf4j
+@Component
+public class AuditWriter implements SmartLifecycle {
+
+    private static final String INSERT = """
+            INSERT INTO event_audit (namespace_id, entry_id, action, params, txid, created_by, created_date)
+            VALUES (?, ?, ?, CAST(? AS jsonb), ?, ?, ?)
+            """;
+
+    public enum Durability {
+        SYNC,
+        GROUP_COMMIT,
+        ASYNC
+    }
+
+    private final EventAuditRepository auditRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final Durability durability;
+    private final RingBuffer<Pending> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final long commitTimeoutMillis;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder inline = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    public AuditWriter(EventAuditRepository auditRepository,
+                       DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${bx.audit.writer.durability:ASYNC}") Durability durability,
+                       @Value("${bx.audit.writer.capacity:65536}") int capacity,
+                       @Value("${bx.audit.writer.batch-size:500}") int batchSize,
+                       @Value("${bx.audit.writer.flush-interval-millis:200}") long flushIntervalMillis,
+                       @Value("${bx.audit.writer.offer-timeout-millis:50}") long offerTimeoutMillis,
+                       @Value("${bx.audit.writer.commit-timeout-millis:5000}") long commitTimeoutMillis) {
+        this.auditRepository = auditRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.durability = durability;
+        this.buffer = durability == Durability.SYNC ? null : new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.commitTimeoutMillis = commitTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        if (durability == Durability.SYNC || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("Audit writer started (durability={}, capacity={}, batch={})", durability, buffer.capacity(), batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            // the writer drains what is left before exiting
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Audit writer stopped: {} written, {} dropped, {} failed", written.sum(), dropped.sum(), failed.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Record an audit row according to the configured durability.
+     */
+    public void write(EventAuditTb row) {
+        if (!running) {
+            // SYNC, or not started / shutting down
+            saveInline(row);
+            return;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (durability == Durability.GROUP_COMMIT && inTransaction) {
+            saveInline(row);
+            return;
+        }
+        if (durability == Durability.ASYNC && inTransaction && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(row);
+                }
+            });
+            return;
+        }
+        submit(row);
+    }
+
+    private void submit(EventAuditTb row) {
+        if (!running) {
+            // stopped since write(); after commit the caller's transaction can no longer be joined
+            batchTransaction.executeWithoutResult(status -> saveInline(row));
+            return;
+        }
+        Pending pending = new Pending(row, durability == Durability.GROUP_COMMIT ? new CompletableFuture<>() : null);
+        if (!enqueue(pending)) {
+            if (durability == Durability.GROUP_COMMIT) {
+                saveInline(row);
+            } else {
+                dropped.increment();
+                log.debug("Audit buffer full, dropped {} for namespace {}", row.getAction(), row.getId().getNamespaceId());
+            }
+            return;
+        }
+        enqueued.increment();
+        if (pending.done() == null) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        LockSupport.unpark(writer);
+        awaitCommit(pending);
+    }
+
+    public Stats getStats() {
+        return new Stats(durability, enqueued.sum(), written.sum(), inline.sum(), dropped.sum(), failed.sum(),
+                stalls.sum(), buffer != null ? buffer.size() : 0, buffer != null ? buffer.capacity() : 0);
+    }
+
+    /**
+     * {@code stalls} counts producers that found the buffer full and had to wait or fall back;
+     * {@code dropped} the ASYNC rows given up on after {@code offer-timeout-millis}.
+     */
+    public record Stats(Durability durability, long enqueued, long written, long inline, long dropped, long failed,
+                        long stalls, int pending, int capacity) {
+    }
+
+    private boolean enqueue(Pending pending) {
+        if (buffer.offer(pending)) {
+            return true;
+        }
+        stalls.increment();
+        LockSupport.unpark(writer);
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(pending)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitCommit(Pending pending) {
+        try {
+            pending.done().get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Audit write not confirmed within " + commitTimeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for audit write", e);
+        }
+    }
+
+    private void saveInline(EventAuditTb row) {
+        auditRepository.save(row);
+        inline.increment();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            int n = buffer.drain(batch::add, batchSize);
+            if (n > 0) {
+                flush(batch);
+                batch.clear();
+                if (n == batchSize) {
+                    continue;
+                }
+            }
+            if (running) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else if (n == 0) {
+                // a producer claimed a slot but has not published it yet
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            batchTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, pending) -> {
+                        EventAuditTb row = pending.row();
+                        ps.setObject(1, row.getId().getNamespaceId());
+                        ps.setObject(2, row.getEntryId());
+                        ps.setString(3, row.getAction());
+                        ps.setString(4, row.getParams() != null ? row.getParams().toString() : null);
+                        ps.setString(5, row.getTxid());
+                        ps.setObject(6, row.getCreatedBy());
+                        ps.setObject(7, row.getCreatedDate());
+                    }));
+            written.add(batch.size());
+            for (Pending pending : batch) {
+                pending.complete(null);
+            }
+        } catch (RuntimeException e) {
+            // one bad row fails the whole batch; retry one by one so only that row is lost
+            log.warn("Audit batch of {} failed, retrying rows individually", batch.size(), e);
+            for (Pending pending : batch) {
+                try {
+                    batchTransaction.executeWithoutResult(status -> auditRepository.save(pending.row()));
+                    written.increment();
+                    pending.complete(null);
+                } catch (RuntimeException rowFailure) {
+                    failed.increment();
+                    log.error("Audit row {} for namespace {} could not be written", pending.row().getAction(),
+                            pending.row().getId().getNamespaceId(), rowFailure);
+                    pending.complete(rowFailure);
+                }
+            }
+        }
+    }
+
+    private record Pending(EventAuditTb row, CompletableFuture<Void> done) {
+
+        void complete(RuntimeException failure) {
+            if (done == null) {
+                return;
+            }
+            if (failure == null) {
+                done.complete(null);
+            } else {
+                done.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -8,22 +8,34 @@ import com.tsu.namespace.entities.BookingWaitlistTb;
 import com.tsu.namespace.entities.id.BookingHoldId;
 import com.tsu.namespace.entities.id.BookingId;
 import com.tsu.namespace.entities.id.BookingWaitlistId;
+import com.tsu.namespace.helper.support.SeekToken;
 import com.tsu.namespace.record.BookingHoldRecord;
 import com.tsu.namespace.record.BookingRecord;
 import com.tsu.namespace.record.BookingWaitlistRecord;
+import com.tsu.namespace.record.HoldConversionResult;
+import com.tsu.namespace.record.KeysetSlice;
 import com.tsu.namespace.repo.BookingHoldRepository;
 import com.tsu.namespace.repo.BookingRepository;
 import com.tsu.namespace.repo.BookingWaitlistRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Database helper for booking operations.
@@ -33,12 +45,20 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BookingDbHelper {
 
+    private static final int MAX_SLICE_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
     private final BookingHoldRepository holdRepository;
     private final BookingWaitlistRepository waitlistRepository;
+    private final BookingOccupancyCache occupancyCache;
+    private final HoldExpiryReaper expiryReaper;
+    private final WaitlistPromoter waitlistPromoter;
+    private final BookingSeriesDbHelper seriesDbHelper;
+    private final PlatformTransactionManager transactionManager;
 
     // Booking CRUD
 
+    @Transactional
     public BookingRecord createBooking(UUID namespaceId, UUID resourceId, UUID userId,
                                       LocalDateTime startAt, LocalDateTime endAt,
                                       String title, String notes, BookingStatus status,
@@ -46,6 +66,8 @@ public class BookingDbHelper {
         log.debug("Creating booking: namespaceId={}, resourceId={}, userId={}, start={}, end={}",
                 namespaceId, resourceId, userId, startAt, endAt);
 
+        requireSeriesFree(namespaceId, resourceId, startAt, endAt);
+
         BookingTb tb = new BookingTb();
         BookingId id = new BookingId(namespaceId, UUID.randomUUID());
         tb.setId(id);
@@ -60,6 +82,7 @@ public class BookingDbHelper {
         tb.setCreatedBy(context.getUserId());
 
         bookingRepository.save(tb);
+        occupancyCache.onWrite(namespaceId, resourceId, null, BookingOccupancyCache.Slot.live(tb));
         log.info("Booking created with id: {}", id.getId());
 
         return build(tb, context);
@@ -93,13 +116,60 @@ public class BookingDbHelper {
                 .map(tb -> build(tb, context));
     }
 
+    /**
+     * Keyset listing of the namespace's bookings ordered by (start_at, id). {@code token} is the
+     * previous slice's next token, or null for the first slice.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<BookingRecord> findAllBookings(UUID namespaceId, String token, int limit,
+                                                      AppSecurityContext context) {
+        SeekToken after = SeekToken.decode(token);
+        int size = sliceSize(limit);
+        return slice(bookingRepository.findPageAfter(namespaceId, after.startAt(), after.id(), size + 1), size, context);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetSlice<BookingRecord> findBookingsByResource(UUID namespaceId, UUID resourceId, String token, int limit,
+                                                             AppSecurityContext context) {
+        SeekToken after = SeekToken.decode(token);
+        int size = sliceSize(limit);
+        return slice(bookingRepository.findResourcePageAfter(namespaceId, resourceId, after.startAt(), after.id(), size + 1),
+                size, context);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetSlice<BookingRecord> findBookingsByUser(UUID namespaceId, UUID userId, String token, int limit,
+                                                         AppSecurityContext context) {
+        SeekToken after = SeekToken.decode(token);
+        int size = sliceSize(limit);
+        return slice(bookingRepository.findUserPageAfter(namespaceId, userId, after.startAt(), after.id(), size + 1),
+                size, context);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetSlice<BookingRecord> findUpcomingBookings(UUID namespaceId, UUID userId, LocalDateTime fromDate,
+                                                           String token, int limit, AppSecurityContext context) {
+        SeekToken after = SeekToken.decode(token);
+        int size = sliceSize(limit);
+        return slice(bookingRepository.findUpcomingPageAfter(namespaceId, userId, fromDate, after.startAt(), after.id(), size + 1),
+                size, context);
+    }
+
+    @Transactional(readOnly = true)
     public List<BookingRecord> findBookingsInRange(UUID namespaceId, UUID resourceId,
                                                    LocalDateTime startAt, LocalDateTime endAt,
                                                    AppSecurityContext context) {
-        return bookingRepository.findBookingsInRange(namespaceId, resourceId, startAt, endAt)
-                .stream()
-                .map(tb -> build(tb, context))
-                .toList();
+        List<BookingTb> rows = new ArrayList<>();
+        try (Stream<BookingTb> bookings = bookingRepository.findBookingsInRange(namespaceId, resourceId, startAt, endAt)) {
+            bookings.forEach(rows::add);
+        }
+        for (BookingSeriesDbHelper.Occurrence occurrence : seriesDbHelper.findOccurrences(namespaceId, resourceId, startAt, endAt)) {
+            // same containment rule as the booking query
+            if (!occurrence.startAt().isBefore(startAt) && !occurrence.endAt().isAfter(endAt)) {
+                rows.add(seriesDbHelper.toBooking(occurrence));
+            }
+        }
+        return sorted(rows, context);
     }
 
     public Page<BookingRecord> findUpcomingBookings(UUID namespaceId, UUID userId,
@@ -109,68 +179,106 @@ public class BookingDbHelper {
                 .map(tb -> build(tb, context));
     }
 
+    @Transactional(readOnly = true)
     public List<BookingRecord> findOverlappingBookings(UUID namespaceId, UUID resourceId,
                                                       LocalDateTime startAt, LocalDateTime endAt,
                                                       AppSecurityContext context) {
-        return bookingRepository.findOverlappingBookings(namespaceId, resourceId, startAt, endAt)
-                .stream()
-                .map(tb -> build(tb, context))
-                .toList();
+        List<BookingTb> rows = new ArrayList<>();
+        if (!occupancyCache.isEnabled() || !occupancyCache.isSlotAvailable(namespaceId, resourceId, startAt, endAt)) {
+            try (Stream<BookingTb> bookings = bookingRepository.findOverlappingBookings(namespaceId, resourceId, startAt, endAt)) {
+                bookings.forEach(rows::add);
+            }
+        }
+        for (BookingSeriesDbHelper.Occurrence occurrence : seriesDbHelper.findOccurrences(namespaceId, resourceId, startAt, endAt)) {
+            rows.add(seriesDbHelper.toBooking(occurrence));
+        }
+        return sorted(rows, context);
     }
 
+    @Transactional
     public BookingRecord updateBooking(UUID namespaceId, UUID bookingId,
                                       LocalDateTime startAt, LocalDateTime endAt,
                                       String title, String notes, AppSecurityContext context) {
         BookingTb tb = bookingRepository.findByIdNamespaceIdAndIdId(namespaceId, bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+        BookingOccupancyCache.Slot before = BookingOccupancyCache.Slot.live(tb);
 
         if (startAt != null) tb.setStartAt(startAt);
         if (endAt != null) tb.setEndAt(endAt);
         if (title != null) tb.setTitle(title);
         if (notes != null) tb.setNotes(notes);
+        BookingOccupancyCache.Slot after = BookingOccupancyCache.Slot.live(tb);
+        if (after != null && !after.equals(before)) {
+            requireSeriesFree(namespaceId, tb.getResourceId(), tb.getStartAt(), tb.getEndAt());
+        }
 
         tb.setUpdatedAt(LocalDateTime.now());
         tb.setUpdatedBy(context.getUserId());
 
         bookingRepository.save(tb);
+        occupancyCache.onWrite(namespaceId, tb.getResourceId(), before, after);
         log.info("Booking updated: {}", bookingId);
 
         return build(tb, context);
     }
 
+    @Transactional
     public BookingRecord changeBookingStatus(UUID namespaceId, UUID bookingId,
                                             BookingStatus status, AppSecurityContext context) {
         BookingTb tb = bookingRepository.findByIdNamespaceIdAndIdId(namespaceId, bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+        BookingOccupancyCache.Slot before = BookingOccupancyCache.Slot.live(tb);
 
         tb.setStatus(status);
+        if (before == null && BookingOccupancyCache.Slot.live(tb) != null) {
+            requireSeriesFree(namespaceId, tb.getResourceId(), tb.getStartAt(), tb.getEndAt());
+        }
         tb.setUpdatedAt(LocalDateTime.now());
         tb.setUpdatedBy(context.getUserId());
 
         bookingRepository.save(tb);
+        occupancyCache.onWrite(namespaceId, tb.getResourceId(), before, BookingOccupancyCache.Slot.live(tb));
         log.info("Booking {} status changed to {}", bookingId, status);
+        if (before != null && BookingOccupancyCache.Slot.live(tb) == null) {
+            bookingRepository.flush();
+            waitlistPromoter.promote(namespaceId, tb.getResourceId(), tb.getStartAt(), tb.getEndAt());
+        }
 
         return build(tb, context);
     }
 
+    @Transactional
     public void softDeleteBooking(UUID namespaceId, UUID bookingId, AppSecurityContext context) {
         BookingTb tb = bookingRepository.findByIdNamespaceIdAndIdId(namespaceId, bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+        BookingOccupancyCache.Slot before = BookingOccupancyCache.Slot.live(tb);
 
         tb.setDeletedAt(LocalDateTime.now());
         bookingRepository.save(tb);
+        occupancyCache.onWrite(namespaceId, tb.getResourceId(), before, null);
         log.info("Booking soft deleted: {}", bookingId);
+        if (before != null) {
+            bookingRepository.flush();
+            waitlistPromoter.promote(namespaceId, tb.getResourceId(), tb.getStartAt(), tb.getEndAt());
+        }
     }
 
+    @Transactional
     public void deleteBooking(UUID namespaceId, UUID bookingId) {
         BookingId id = new BookingId(namespaceId, bookingId);
+        if (occupancyCache.isEnabled()) {
+            bookingRepository.findById(id).ifPresent(tb ->
+                    occupancyCache.onWrite(namespaceId, tb.getResourceId(), BookingOccupancyCache.Slot.live(tb), null));
+        }
         bookingRepository.deleteById(id);
         log.info("Booking permanently deleted: {}", bookingId);
     }
 
+    @Transactional(readOnly = true)
     public boolean isSlotAvailable(UUID namespaceId, UUID resourceId,
                                   LocalDateTime startAt, LocalDateTime endAt) {
-        return bookingRepository.isSlotAvailable(namespaceId, resourceId, startAt, endAt);
+        return occupancyCache.isSlotAvailable(namespaceId, resourceId, startAt, endAt)
+                && seriesDbHelper.isFree(namespaceId, resourceId, startAt, endAt);
     }
 
     // Holds
@@ -192,6 +300,7 @@ public class BookingDbHelper {
         tb.setCreatedAt(LocalDateTime.now());
 
         holdRepository.save(tb);
+        expiryReaper.track(id.getId(), expiresAt);
         log.info("Booking hold created with id: {}", id.getId());
 
         return buildHold(tb, context);
@@ -234,6 +343,80 @@ public class BookingDbHelper {
         return count;
     }
 
+    /**
+     * Turn a hold into a booking with a single statement. The booking takes the hold's resource,
+     * user and slot; the hold is removed in the same statement. Missing/expired holds and
+     * overlap with an existing booking or series occurrence come back as a failed result instead
+     * of an exception. Runs in its own transaction, under the resource lock, so a conflict can be
+     * reported without poisoning the caller's.
+     */
+    public HoldConversionResult convertHoldToBooking(UUID namespaceId, UUID holdId, String title, String notes,
+                                                     BookingStatus status, AppSecurityContext context) {
+        Optional<BookingHoldTb> hold = holdRepository.findById(new BookingHoldId(namespaceId, holdId));
+        if (hold.isEmpty()) {
+            return HoldConversionResult.failed(HoldConversionResult.Outcome.HOLD_NOT_FOUND, holdId);
+        }
+        BookingHoldTb held = hold.get();
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate conversion = new TransactionTemplate(transactionManager);
+        conversion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Optional<BookingTb> converted;
+        try {
+            converted = conversion.execute(tx -> {
+                if (!seriesDbHelper.lockAndCheck(namespaceId, held.getResourceId(), held.getStartAt(), held.getEndAt())) {
+                    // a series occurrence takes the slot
+                    return null;
+                }
+                return bookingRepository.convertHold(namespaceId, holdId, now, UUID.randomUUID(),
+                        title, notes, status.name(), context.getUserId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            log.info("Hold {} conflicts with an existing booking", holdId);
+            return HoldConversionResult.failed(HoldConversionResult.Outcome.SLOT_CONFLICT, holdId);
+        }
+        if (converted == null) {
+            log.info("Hold {} conflicts with a recurring booking series", holdId);
+            return HoldConversionResult.failed(HoldConversionResult.Outcome.SLOT_CONFLICT, holdId);
+        }
+        if (converted.isEmpty()) {
+            // only reached on failure, to tell the two cases apart
+            HoldConversionResult.Outcome outcome = holdRepository.existsById(new BookingHoldId(namespaceId, holdId))
+                    ? HoldConversionResult.Outcome.HOLD_EXPIRED
+                    : HoldConversionResult.Outcome.HOLD_NOT_FOUND;
+            return HoldConversionResult.failed(outcome, holdId);
+        }
+        BookingTb tb = converted.get();
+        occupancyCache.onCommitted(namespaceId, tb.getResourceId(), null, BookingOccupancyCache.Slot.live(tb));
+        log.info("Hold {} converted to booking {}", holdId, tb.getId().getId());
+        return HoldConversionResult.converted(holdId, build(tb, context));
+    }
+
+    /**
+     * Lock the resource and fail when a series occurrence takes {@code [startAt, endAt)}; series
+     * occurrences are not covered by booking_no_overlap.
+     */
+    private void requireSeriesFree(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt) {
+        if (!seriesDbHelper.lockAndCheck(namespaceId, resourceId, startAt, endAt)) {
+            throw new IllegalStateException("Slot conflicts with a recurring booking series");
+        }
+    }
+
+    static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            // 23P01 = exclusion_violation
+            if (t instanceof SQLException sql && "23P01".equals(sql.getSQLState())) {
+                return true;
+            }
+            if (t.getMessage() != null && t.getMessage().contains("booking_no_overlap")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Waitlist
 
     public BookingWaitlistRecord addToWaitlist(UUID namespaceId, UUID resourceId, UUID userId,
@@ -294,8 +477,40 @@ public class BookingDbHelper {
         log.info("Waitlist entry deleted: {}", waitlistId);
     }
 
+    // Keyset slices
+
+    private static int sliceSize(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Slice limit must be positive: " + limit);
+        }
+        return Math.min(limit, MAX_SLICE_SIZE);
+    }
+
+    /**
+     * Consume a query fetched with {@code size + 1} rows; the extra row only signals a next slice.
+     */
+    private KeysetSlice<BookingRecord> slice(Stream<BookingTb> rows, int size, AppSecurityContext context) {
+        List<BookingTb> page;
+        try (rows) {
+            page = rows.toList();
+        }
+        if (page.size() <= size) {
+            return new KeysetSlice<>(page.stream().map(tb -> build(tb, context)).toList(), null);
+        }
+        BookingTb last = page.get(size - 1);
+        String next = new SeekToken(last.getStartAt(), last.getId().getId()).encode();
+        return new KeysetSlice<>(page.subList(0, size).stream().map(tb -> build(tb, context)).toList(), next);
+    }
+
     // Record builders
 
+    private List<BookingRecord> sorted(List<BookingTb> rows, AppSecurityContext context) {
+        rows.sort(Comparator.comparing(BookingTb::getStartAt));
+        return rows.stream()
+                .map(tb -> build(tb, context))
+                .toList();
+    }
+
     private BookingRecord build(BookingTb tb, AppSecurityContext context) {
         return new BookingRecord(tb, context);
     }
@@ -0,0 +1,228 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.entities.BookingTb;
+import com.tsu.namespace.helper.support.StorageTime;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Streaming booking export.
+ * <p>
+ * Rows are read through a server-side cursor (PostgreSQL only honours the fetch size inside a
+ * transaction) and written straight to the output as they arrive; each entity is detached once
+ * written, so memory stays flat however many rows the range holds. Only stored bookings are
+ * exported; recurring series occurrences are not materialized here.
+ */
+@Slf4j
+@Component
+public class BookingExportDbHelper {
+
+    private static final String RESOURCE_RANGE = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.resource_id = ?2
+              AND b.slot && tstzrange(?3, ?4, '[)')
+              AND b.deleted_date IS NULL
+            ORDER BY b.start_at, b.id
+            """;
+
+    private static final String NAMESPACE_RANGE = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.start_at < ?3
+              AND b.end_at > ?2
+              AND b.deleted_date IS NULL
+            ORDER BY b.start_at, b.id
+            """;
+
+    private static final String CSV_HEADER =
+            "id,resource_id,user_id,status,start_at,end_at,title,notes,created_date,modified_date";
+
+    public enum Format {
+        /** RFC 4180 CSV with a header row. */
+        CSV,
+        /** One JSON object per line. */
+        NDJSON
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int fetchSize;
+
+    public BookingExportDbHelper(@Value("${bx.booking.export.fetch-size:500}") int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Write the bookings overlapping {@code [startAt, endAt)} to {@code out}, ordered by start.
+     * A null {@code resourceId} exports the whole namespace. The stream is flushed but not
+     * closed. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long exportBookings(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt,
+                               Format format, OutputStream out) {
+        Query query;
+        if (resourceId != null) {
+            query = entityManager.createNativeQuery(RESOURCE_RANGE, BookingTb.class)
+                    .setParameter(1, namespaceId)
+                    .setParameter(2, resourceId)
+                    .setParameter(3, startAt)
+                    .setParameter(4, endAt);
+        } else {
+            query = entityManager.createNativeQuery(NAMESPACE_RANGE, BookingTb.class)
+                    .setParameter(1, namespaceId)
+                    .setParameter(2, startAt)
+                    .setParameter(3, endAt);
+        }
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<?> rows = query.getResultStream()) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write("\r\n");
+            }
+            for (Object row : (Iterable<?>) rows::iterator) {
+                BookingTb tb = (BookingTb) row;
+                if (format == Format.CSV) {
+                    writeCsv(writer, tb);
+                } else {
+                    writeJson(writer, tb);
+                }
+                entityManager.detach(tb);
+                count++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Booking export failed after " + count + " rows", e);
+        }
+        log.info("Exported {} bookings from namespace {} as {}", count, namespaceId, format);
+        return count;
+    }
+
+    private static void writeCsv(Writer w, BookingTb tb) throws IOException {
+        w.write(tb.getId().getId().toString());
+        w.write(',');
+        w.write(tb.getResourceId().toString());
+        w.write(',');
+        w.write(tb.getUserId().toString());
+        w.write(',');
+        w.write(tb.getStatus().name());
+        w.write(',');
+        w.write(timestamp(tb.getStartAt()));
+        w.write(',');
+        w.write(timestamp(tb.getEndAt()));
+        w.write(',');
+        csvField(w, tb.getTitle());
+        w.write(',');
+        csvField(w, tb.getNotes());
+        w.write(',');
+        w.write(timestamp(tb.getCreatedDate()));
+        w.write(',');
+        w.write(timestamp(tb.getModifiedDate()));
+        w.write("\r\n");
+    }
+
+    private static void csvField(Writer w, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            w.write(value);
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                w.write('"');
+            }
+            w.write(c);
+        }
+        w.write('"');
+    }
+
+    private static void writeJson(Writer w, BookingTb tb) throws IOException {
+        w.write("{\"id\":\"");
+        w.write(tb.getId().getId().toString());
+        w.write("\",\"resourceId\":\"");
+        w.write(tb.getResourceId().toString());
+        w.write("\",\"userId\":\"");
+        w.write(tb.getUserId().toString());
+        w.write("\",\"status\":\"");
+        w.write(tb.getStatus().name());
+        w.write("\",\"startAt\":\"");
+        w.write(timestamp(tb.getStartAt()));
+        w.write("\",\"endAt\":\"");
+        w.write(timestamp(tb.getEndAt()));
+        w.write("\",\"title\":");
+        jsonString(w, tb.getTitle());
+        w.write(",\"notes\":");
+        jsonString(w, tb.getNotes());
+        w.write(",\"createdDate\":\"");
+        w.write(timestamp(tb.getCreatedDate()));
+        w.write("\",\"modifiedDate\":\"");
+        w.write(timestamp(tb.getModifiedDate()));
+        w.write("\"}\n");
+    }
+
+    private static void jsonString(Writer w, String value) throws IOException {
+        if (value == null) {
+            w.write("null");
+            return;
+        }
+        w.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> w.write("\\\"");
+                case '\\' -> w.write("\\\\");
+                case '\n' -> w.write("\\n");
+                case '\r' -> w.write("\\r");
+                case '\t' -> w.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        w.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        w.write(c);
+                    }
+                }
+            }
+        }
+        w.write('"');
+    }
+
+    /**
+     * Stored times are in the storage zone; export them with their offset so they are unambiguous.
+     */
+    private static String timestamp(LocalDateTime value) {
+        return value == null ? "" : value.atZone(StorageTime.STORAGE_ZONE).toOffsetDateTime().toString();
+    }
+}
@@ -0,0 +1,318 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.auth.security.AppSecurityContext;
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.helper.support.IntervalSet;
+import com.tsu.namespace.helper.support.StorageTime;
+import com.tsu.namespace.record.BookingImportReport;
+import com.tsu.namespace.record.BookingImportRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Bulk booking import.
+ * <p>
+ * Rows are validated in memory, then written in chunks. Each chunk first takes the resource
+ * locks of {@link BookingSeriesDbHelper#lockResource} for its resources, the same per-resource
+ * advisory locks every booking writer takes, so no booking can slip in between the overlap check
+ * and the insert while other resources and tenants stay writable. Live rows overlapping a series
+ * occurrence are rejected, the rest are JDBC-batched into a temporary staging table, rows
+ * overlapping stored live bookings are flagged with one UPDATE, and the survivors are checked
+ * against each other in input order before being merged with a single INSERT ... SELECT. Only
+ * rows that survive every check can reject later rows as {@code OVERLAPS_BATCH}.
+ * <p>
+ * Each chunk commits on its own. When a chunk fails the import stops: earlier chunks stay
+ * committed and the report carries {@code abortedAt}, the index of the first row not imported.
+ */
+@Slf4j
+@Component
+public class BookingImportDbHelper {
+
+    private static final String CREATE_STAGE = """
+            CREATE TEMP TABLE booking_import_stage ON COMMIT DROP AS
+            SELECT id, resource_id, user_id, title, notes, start_at, end_at, status
+            FROM booking
+            WITH NO DATA
+            """;
+
+    private static final String EXTEND_STAGE = """
+            ALTER TABLE booking_import_stage
+                ADD COLUMN row_index int,
+                ADD COLUMN live boolean,
+                ADD COLUMN reject text,
+                ADD COLUMN conflicting_id uuid
+            """;
+
+    private static final String INSERT_STAGE = """
+            INSERT INTO booking_import_stage (id, resource_id, user_id, title, notes, start_at, end_at, status, row_index, live)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String FLAG_REJECTS = """
+            UPDATE booking_import_stage s
+            SET reject = CASE WHEN x.known THEN 'OVERLAPS_EXISTING' ELSE 'UNKNOWN_RESOURCE' END,
+                conflicting_id = x.conflicting_id
+            FROM (
+                SELECT st.row_index,
+                       EXISTS (SELECT 1 FROM resource r WHERE r.namespace_id = ? AND r.id = st.resource_id) AS known,
+                       (SELECT b.id
+                        FROM booking b
+                        WHERE b.namespace_id = ?
+                          AND b.resource_id = st.resource_id
+                          AND st.live
+                          AND b.slot && tstzrange(st.start_at, st.end_at, '[)')
+                          AND b.deleted_date IS NULL
+                          AND b.status IN ('CONFIRMED', 'TENTATIVE')
+                        LIMIT 1) AS conflicting_id
+                FROM booking_import_stage st
+            ) x
+            WHERE x.row_index = s.row_index
+              AND (NOT x.known OR x.conflicting_id IS NOT NULL)
+            RETURNING s.row_index, s.reject, s.conflicting_id
+            """;
+
+    private static final String FLAG_BATCH_REJECTS = """
+            UPDATE booking_import_stage SET reject = 'OVERLAPS_BATCH' WHERE row_index = ?
+            """;
+
+    private static final String MERGE = """
+            INSERT INTO booking (id, namespace_id, resource_id, user_id, title, notes, start_at, end_at, status,
+                                 created_by, created_date, modified_by, modified_date)
+            SELECT s.id, ?, s.resource_id, s.user_id, s.title, s.notes, s.start_at, s.end_at, s.status, ?, ?, ?, ?
+            FROM booking_import_stage s
+            WHERE s.reject IS NULL
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final BookingOccupancyCache occupancyCache;
+    private final BookingSeriesDbHelper seriesDbHelper;
+    private final int chunkSize;
+
+    public BookingImportDbHelper(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 BookingOccupancyCache occupancyCache,
+                                 BookingSeriesDbHelper seriesDbHelper,
+                                 @Value("${bx.booking.import.chunk-size:2000}") int chunkSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.occupancyCache = occupancyCache;
+        this.seriesDbHelper = seriesDbHelper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import {@code rows} into the namespace. The stream is consumed once and closed by the caller.
+     */
+    public BookingImportReport importBookings(UUID namespaceId, Stream<BookingImportRow> rows, AppSecurityContext context) {
+        UUID actor = context.getUserId();
+        List<BookingImportReport.RowConflict> conflicts = new ArrayList<>();
+        // live rows merged so far, per resource: start -> (end, row index)
+        Map<UUID, TreeMap<LocalDateTime, Accepted>> accepted = new HashMap<>();
+        List<Staged> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int imported = 0;
+
+        Iterator<BookingImportRow> it = rows.iterator();
+        while (it.hasNext()) {
+            BookingImportRow row = it.next();
+            int index = received++;
+            if (row == null || row.resourceId() == null || row.userId() == null
+                    || row.startAt() == null || row.endAt() == null || !row.endAt().isAfter(row.startAt())) {
+                conflicts.add(new BookingImportReport.RowConflict(index, BookingImportReport.Reason.INVALID, null, null));
+            } else {
+                BookingStatus status = row.status() != null ? row.status() : BookingStatus.CONFIRMED;
+                boolean live = status == BookingStatus.CONFIRMED || status == BookingStatus.TENTATIVE;
+                chunk.add(new Staged(index, row, status, live));
+            }
+            if (!chunk.isEmpty() && (chunk.size() == chunkSize || !it.hasNext())) {
+                try {
+                    imported += mergeChunk(namespaceId, chunk, actor, accepted, conflicts);
+                } catch (RuntimeException e) {
+                    int abortedAt = chunk.get(0).index();
+                    log.error("Import into namespace {} aborted at row {}, {} bookings already committed",
+                            namespaceId, abortedAt, imported, e);
+                    return report(namespaceId, received, imported, conflicts, abortedAt);
+                }
+                chunk.clear();
+            }
+        }
+        return report(namespaceId, received, imported, conflicts, null);
+    }
+
+    private static BookingImportReport report(UUID namespaceId, int received, int imported,
+                                              List<BookingImportReport.RowConflict> conflicts, Integer abortedAt) {
+        conflicts.sort(Comparator.comparingInt(BookingImportReport.RowConflict::index));
+        log.info("Imported {} of {} bookings into namespace {}, {} rejected", imported, received, namespaceId, conflicts.size());
+        return new BookingImportReport(received, imported, conflicts, abortedAt);
+    }
+
+    /**
+     * Merge one chunk in its own transaction. Rejections are only added to {@code conflicts} and
+     * merged rows to {@code accepted} once the chunk has committed.
+     */
+    private int mergeChunk(UUID namespaceId, List<Staged> chunk, UUID actor,
+                           Map<UUID, TreeMap<LocalDateTime, Accepted>> accepted,
+                           List<BookingImportReport.RowConflict> conflicts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingImportReport.RowConflict> rejected = new ArrayList<>();
+        Map<UUID, TreeMap<LocalDateTime, Accepted>> merged = new HashMap<>();
+        Integer inserted = chunkTransaction.execute(status -> {
+            List<Staged> clear = withoutSeriesConflicts(namespaceId, chunk, rejected);
+            if (clear.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.execute(CREATE_STAGE);
+            jdbcTemplate.execute(EXTEND_STAGE);
+            jdbcTemplate.batchUpdate(INSERT_STAGE, clear, clear.size(), (ps, staged) -> {
+                BookingImportRow row = staged.row();
+                ps.setObject(1, UUID.randomUUID());
+                ps.setObject(2, row.resourceId());
+                ps.setObject(3, row.userId());
+                ps.setString(4, row.title());
+                ps.setString(5, row.notes());
+                ps.setObject(6, row.startAt());
+                ps.setObject(7, row.endAt());
+                ps.setString(8, staged.status().name());
+                ps.setInt(9, staged.index());
+                ps.setBoolean(10, staged.live());
+            });
+            Map<Integer, BookingImportReport.RowConflict> flagged = new HashMap<>();
+            jdbcTemplate.query(FLAG_REJECTS, rs -> {
+                flagged.put(rs.getInt(1), new BookingImportReport.RowConflict(rs.getInt(1),
+                        BookingImportReport.Reason.valueOf(rs.getString(2)), null, rs.getObject(3, UUID.class)));
+            }, namespaceId, namespaceId);
+            List<Integer> batchRejects = new ArrayList<>();
+            for (Staged staged : clear) {
+                BookingImportReport.RowConflict conflict = flagged.get(staged.index());
+                if (conflict != null) {
+                    rejected.add(batchConflict(accepted, conflict, staged));
+                    continue;
+                }
+                if (!staged.live()) {
+                    continue;
+                }
+                BookingImportRow row = staged.row();
+                TreeMap<LocalDateTime, Accepted> slots = merged.computeIfAbsent(row.resourceId(), k -> new TreeMap<>());
+                Integer clash = findClash(slots, row.startAt(), row.endAt());
+                if (clash != null) {
+                    rejected.add(new BookingImportReport.RowConflict(staged.index(), BookingImportReport.Reason.OVERLAPS_BATCH, clash, null));
+                    batchRejects.add(staged.index());
+                } else {
+                    slots.put(row.startAt(), new Accepted(row.endAt(), staged.index()));
+                }
+            }
+            if (!batchRejects.isEmpty()) {
+                jdbcTemplate.batchUpdate(FLAG_BATCH_REJECTS, batchRejects, batchRejects.size(), (ps, index) -> ps.setInt(1, index));
+            }
+            return jdbcTemplate.update(MERGE, namespaceId, actor, now, actor, now);
+        });
+        conflicts.addAll(rejected);
+        merged.forEach((resourceId, slots) -> accepted.computeIfAbsent(resourceId, k -> new TreeMap<>()).putAll(slots));
+
+        Set<UUID> resources = new HashSet<>();
+        for (Staged staged : chunk) {
+            resources.add(staged.row().resourceId());
+        }
+        for (UUID resourceId : resources) {
+            occupancyCache.invalidateResource(namespaceId, resourceId);
+        }
+        log.debug("Import chunk of {} rows merged {} bookings", chunk.size(), inserted);
+        return inserted != null ? inserted : 0;
+    }
+
+    /**
+     * Lock the chunk's resources, in id order so concurrent imports cannot deadlock, and drop the
+     * live rows overlapping a series occurrence. Occurrences are expanded once per resource over
+     * the span of its rows.
+     */
+    private List<Staged> withoutSeriesConflicts(UUID namespaceId, List<Staged> chunk,
+                                                List<BookingImportReport.RowConflict> conflicts) {
+        Map<UUID, List<Staged>> byResource = new TreeMap<>();
+        for (Staged staged : chunk) {
+            byResource.computeIfAbsent(staged.row().resourceId(), k -> new ArrayList<>()).add(staged);
+        }
+        List<Staged> clear = new ArrayList<>(chunk.size());
+        byResource.forEach((resourceId, rows) -> {
+            seriesDbHelper.lockResource(namespaceId, resourceId);
+            LocalDateTime from = null;
+            LocalDateTime to = null;
+            for (Staged staged : rows) {
+                if (staged.live()) {
+                    from = from == null || staged.row().startAt().isBefore(from) ? staged.row().startAt() : from;
+                    to = to == null || staged.row().endAt().isAfter(to) ? staged.row().endAt() : to;
+                }
+            }
+            IntervalSet occurrences = new IntervalSet();
+            if (from != null) {
+                seriesDbHelper.findOccurrences(namespaceId, resourceId, from, to).forEach(o ->
+                        occurrences.add(StorageTime.toEpoch(o.startAt()), StorageTime.toEpoch(o.endAt())));
+            }
+            for (Staged staged : rows) {
+                if (staged.live() && occurrences.overlaps(StorageTime.toEpoch(staged.row().startAt()),
+                        StorageTime.toEpoch(staged.row().endAt()))) {
+                    conflicts.add(new BookingImportReport.RowConflict(staged.index(),
+                            BookingImportReport.Reason.OVERLAPS_SERIES, null, null));
+                } else {
+                    clear.add(staged);
+                }
+            }
+        });
+        return clear;
+    }
+
+    /**
+     * A row flagged as overlapping a stored booking is reported as {@code OVERLAPS_BATCH} when
+     * the booking it overlaps came from an earlier chunk of this import.
+     */
+    private static BookingImportReport.RowConflict batchConflict(Map<UUID, TreeMap<LocalDateTime, Accepted>> accepted,
+                                                                 BookingImportReport.RowConflict conflict, Staged staged) {
+        if (conflict.reason() != BookingImportReport.Reason.OVERLAPS_EXISTING) {
+            return conflict;
+        }
+        TreeMap<LocalDateTime, Accepted> slots = accepted.get(staged.row().resourceId());
+        Integer clash = slots != null ? findClash(slots, staged.row().startAt(), staged.row().endAt()) : null;
+        return clash != null
+                ? new BookingImportReport.RowConflict(staged.index(), BookingImportReport.Reason.OVERLAPS_BATCH, clash, null)
+                : conflict;
+    }
+
+    private static Integer findClash(TreeMap<LocalDateTime, Accepted> slots, LocalDateTime start, LocalDateTime end) {
+        // accepted slots never overlap each other, so only the neighbours around start can clash
+        Map.Entry<LocalDateTime, Accepted> before = slots.floorEntry(start);
+        if (before != null && before.getValue().end().isAfter(start)) {
+            return before.getValue().index();
+        }
+        Map.Entry<LocalDateTime, Accepted> after = slots.higherEntry(start);
+        if (after != null && after.getKey().isBefore(end)) {
+            return after.getValue().index();
+        }
+        return null;
+    }
+
+    private record Accepted(LocalDateTime end, int index) {
+    }
+
+    private record Staged(int index, BookingImportRow row, BookingStatus status, boolean live) {
+    }
+}
@@ -0,0 +1,322 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.entities.BookingTb;
+import com.tsu.namespace.helper.support.StorageTime;
+import com.tsu.namespace.repo.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-through cache of live booking intervals per (namespace, resource, UTC day).
+ * <p>
+ * Each bucket holds the CONFIRMED/TENTATIVE bookings touching that day as sorted, primitive
+ * {@code long[]} start/end pairs in epoch seconds. Lookups that miss load the day with one
+ * overlap query; writes made through {@link BookingDbHelper} are applied to resident buckets
+ * after the surrounding transaction commits, so a rolled back write never reaches the cache.
+ * The number of buckets is bounded with LRU eviction.
+ * <p>
+ * Disabled by default; enable with {@code bx.booking.occupancy-cache.enabled=true}.
+ */
+@Slf4j
+@Component
+public class BookingOccupancyCache {
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final int maxDaysPerLookup;
+
+    private final Map<BucketKey, Occupancy> buckets;
+    // bumped on every write so a load racing with a write does not install stale data
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BookingOccupancyCache(BookingRepository bookingRepository,
+                                 @Value("${bx.booking.occupancy-cache.enabled:false}") boolean enabled,
+                                 @Value("${bx.booking.occupancy-cache.max-buckets:50000}") int maxBuckets,
+                                 @Value("${bx.booking.occupancy-cache.max-days-per-lookup:7}") int maxDaysPerLookup) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.maxDaysPerLookup = maxDaysPerLookup;
+        this.buckets = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BucketKey, Occupancy> eldest) {
+                if (size() > BookingOccupancyCache.this.maxBuckets) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.info("Booking occupancy cache {} (maxBuckets={})", enabled ? "enabled" : "disabled", maxBuckets);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True when no live booking overlaps {@code [startAt, endAt)}. Ranges spanning more than
+     * {@code max-days-per-lookup} days go straight to the database.
+     */
+    public boolean isSlotAvailable(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt) {
+        if (!enabled) {
+            return bookingRepository.isSlotAvailable(namespaceId, resourceId, startAt, endAt);
+        }
+        long from = StorageTime.toEpoch(startAt);
+        long to = StorageTime.toEpoch(endAt);
+        if (to <= from) {
+            return true;
+        }
+        long firstDay = StorageTime.dayOf(from);
+        long lastDay = StorageTime.dayOf(to - 1);
+        if (lastDay - firstDay + 1 > maxDaysPerLookup) {
+            bypasses.increment();
+            return bookingRepository.isSlotAvailable(namespaceId, resourceId, startAt, endAt);
+        }
+        for (long day = firstDay; day <= lastDay; day++) {
+            if (getOrLoad(new BucketKey(namespaceId, resourceId, day)).overlaps(from, to)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply a booking write. {@code before} and {@code after} are the live intervals of the
+     * booking prior to and following the write, null when the booking was/is not live.
+     */
+    public void onWrite(UUID namespaceId, UUID resourceId, Slot before, Slot after) {
+        if (!enabled || (before == null && after == null) || (before != null && before.equals(after))) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        afterCommit(() -> apply(namespaceId, resourceId, before, after));
+    }
+
+    /**
+     * Like {@link #onWrite} for a write that has already committed in its own transaction,
+     * applied immediately rather than at the end of the caller's transaction.
+     */
+    public void onCommitted(UUID namespaceId, UUID resourceId, Slot before, Slot after) {
+        if (!enabled || (before == null && after == null) || (before != null && before.equals(after))) {
+            return;
+        }
+        apply(namespaceId, resourceId, before, after);
+    }
+
+    public void invalidateResource(UUID namespaceId, UUID resourceId) {
+        if (!enabled) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        synchronized (buckets) {
+            buckets.keySet().removeIf(k -> k.resourceId().equals(resourceId) && k.namespaceId().equals(namespaceId));
+        }
+    }
+
+    public void clear() {
+        writeSequence.incrementAndGet();
+        synchronized (buckets) {
+            buckets.clear();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (buckets) {
+            size = buckets.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), bypasses.sum(), evictions.sum(), size, maxBuckets);
+    }
+
+    private Occupancy getOrLoad(BucketKey key) {
+        Occupancy cached;
+        synchronized (buckets) {
+            cached = buckets.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long sequence = writeSequence.get();
+        Occupancy loaded = load(key);
+        synchronized (buckets) {
+            if (writeSequence.get() == sequence) {
+                buckets.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private Occupancy load(BucketKey key) {
+        LocalDateTime dayStart = StorageTime.fromEpoch(key.day() * StorageTime.DAY_SECONDS);
+        LocalDateTime dayEnd = StorageTime.fromEpoch((key.day() + 1) * StorageTime.DAY_SECONDS);
+        long[] starts = new long[8];
+        long[] ends = new long[8];
+        int size = 0;
+        try (Stream<BookingTb> bookings = bookingRepository.findOverlappingBookings(
+                key.namespaceId(), key.resourceId(), dayStart, dayEnd)) {
+            for (BookingTb tb : (Iterable<BookingTb>) bookings::iterator) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                starts[size] = StorageTime.toEpoch(tb.getStartAt());
+                ends[size] = StorageTime.toEpoch(tb.getEndAt());
+                size++;
+            }
+        }
+        return new Occupancy(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    private void apply(UUID namespaceId, UUID resourceId, Slot before, Slot after) {
+        writeSequence.incrementAndGet();
+        synchronized (buckets) {
+            if (before != null) {
+                for (long day = before.firstDay(); day <= before.lastDay(); day++) {
+                    buckets.computeIfPresent(new BucketKey(namespaceId, resourceId, day),
+                            (k, occupancy) -> occupancy.without(before.start(), before.end()));
+                }
+            }
+            if (after != null) {
+                for (long day = after.firstDay(); day <= after.lastDay(); day++) {
+                    buckets.computeIfPresent(new BucketKey(namespaceId, resourceId, day),
+                            (k, occupancy) -> occupancy.with(after.start(), after.end()));
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record BucketKey(UUID namespaceId, UUID resourceId, long day) {
+    }
+
+    /**
+     * Live interval of a booking in epoch seconds.
+     */
+    public record Slot(long start, long end) {
+
+        public static Slot of(LocalDateTime startAt, LocalDateTime endAt) {
+            return new Slot(StorageTime.toEpoch(startAt), StorageTime.toEpoch(endAt));
+        }
+
+        /**
+         * The booking's interval when it currently blocks the resource, otherwise null.
+         */
+        public static Slot live(BookingTb tb) {
+            if (tb.getDeletedDate() != null || tb.getStartAt() == null || tb.getEndAt() == null) {
+                return null;
+            }
+            BookingStatus status = tb.getStatus();
+            if (status != BookingStatus.CONFIRMED && status != BookingStatus.TENTATIVE) {
+                return null;
+            }
+            return of(tb.getStartAt(), tb.getEndAt());
+        }
+
+        long firstDay() {
+            return StorageTime.dayOf(start);
+        }
+
+        long lastDay() {
+            return StorageTime.dayOf(end - 1);
+        }
+    }
+
+    /**
+     * Immutable sorted booking intervals of one bucket; updates copy the arrays.
+     */
+    private record Occupancy(long[] starts, long[] ends) {
+
+        boolean overlaps(long from, long to) {
+            for (int i = 0; i < starts.length && starts[i] < to; i++) {
+                if (ends[i] > from) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Add an interval unless the bucket already holds it: a bucket loaded after the write
+         * committed but before its after-commit apply already contains the booking. Live bookings
+         * of one resource cannot overlap, so an equal interval is always the same booking.
+         */
+        Occupancy with(long start, long end) {
+            for (int i = 0; i < starts.length && starts[i] <= start; i++) {
+                if (starts[i] == start && ends[i] == end) {
+                    return this;
+                }
+            }
+            int pos = Arrays.binarySearch(starts, start);
+            int insert = pos >= 0 ? pos : -pos - 1;
+            long[] s = new long[starts.length + 1];
+            long[] e = new long[ends.length + 1];
+            System.arraycopy(starts, 0, s, 0, insert);
+            System.arraycopy(ends, 0, e, 0, insert);
+            s[insert] = start;
+            e[insert] = end;
+            System.arraycopy(starts, insert, s, insert + 1, starts.length - insert);
+            System.arraycopy(ends, insert, e, insert + 1, ends.length - insert);
+            return new Occupancy(s, e);
+        }
+
+        Occupancy without(long start, long end) {
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] == start && ends[i] == end) {
+                    long[] s = new long[starts.length - 1];
+                    long[] e = new long[ends.length - 1];
+                    System.arraycopy(starts, 0, s, 0, i);
+                    System.arraycopy(ends, 0, e, 0, i);
+                    System.arraycopy(starts, i + 1, s, i, starts.length - i - 1);
+                    System.arraycopy(ends, i + 1, e, i, ends.length - i - 1);
+                    return new Occupancy(s, e);
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Cache counters for sizing; hit rate excludes bypassed multi-day lookups.
+     */
+    public record Stats(long hits, long misses, long bypasses, long evictions, int size, int maxSize) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0d : (double) hits / total;
+        }
+    }
+}
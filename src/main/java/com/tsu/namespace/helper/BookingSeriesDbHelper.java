@@ -0,0 +1,420 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.auth.security.AppSecurityContext;
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.entities.BookingSeriesExceptionTb;
+import com.tsu.namespace.entities.BookingSeriesTb;
+import com.tsu.namespace.entities.BookingTb;
+import com.tsu.namespace.entities.id.BookingId;
+import com.tsu.namespace.entities.id.BookingSeriesExceptionId;
+import com.tsu.namespace.entities.id.BookingSeriesId;
+import com.tsu.namespace.helper.support.IntervalSet;
+import com.tsu.namespace.helper.support.RecurrenceRule;
+import com.tsu.namespace.helper.support.StorageTime;
+import com.tsu.namespace.record.BookingSeriesRecord;
+import com.tsu.namespace.record.SeriesCreationResult;
+import com.tsu.namespace.repo.BookingRepository;
+import com.tsu.namespace.repo.BookingSeriesExceptionRepository;
+import com.tsu.namespace.repo.BookingSeriesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Database helper for recurring booking series.
+ * <p>
+ * A series stores its rule once; occurrences only exist when a window is queried. Edited or
+ * cancelled occurrences are materialized as booking_series_exception rows keyed by the
+ * occurrence's original start. Series occurrences are not covered by the booking_no_overlap
+ * constraint, so conflicts with them are checked here.
+ * <p>
+ * Every write that adds or moves a live interval on a resource (booking, converted hold, imported
+ * row, promoted waitlist entry, series or occurrence) first takes the resource's
+ * {@code pg_advisory_xact_lock} through {@link #lockResource} or {@link #lockAndCheck}, and holds
+ * it until commit, so a check and the insert that follows it cannot interleave with another
+ * writer's. A series must end within {@code bx.booking.series.conflict-horizon-days} of its first
+ * occurrence (366 by default): all of its occurrences are checked when it is created, and rules
+ * without COUNT or UNTIL, or reaching further, are rejected.
+ */
+@Slf4j
+@Component
+public class BookingSeriesDbHelper {
+
+    private static final int MAX_REPORTED_CONFLICTS = 100;
+
+    // the two-int form keys the lock on (namespace, resource)
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext(CAST(? AS text)), hashtext('booking:' || CAST(? AS text)))";
+
+    private final BookingSeriesRepository seriesRepository;
+    private final BookingSeriesExceptionRepository exceptionRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long conflictHorizonDays;
+    private final long conflictHorizonSeconds;
+
+    public BookingSeriesDbHelper(BookingSeriesRepository seriesRepository,
+                                 BookingSeriesExceptionRepository exceptionRepository,
+                                 BookingRepository bookingRepository,
+                                 DataSource dataSource,
+                                 @Value("${bx.booking.series.conflict-horizon-days:366}") long conflictHorizonDays) {
+        if (conflictHorizonDays < 1) {
+            throw new IllegalArgumentException("bx.booking.series.conflict-horizon-days must be positive: " + conflictHorizonDays);
+        }
+        this.seriesRepository = seriesRepository;
+        this.exceptionRepository = exceptionRepository;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.conflictHorizonDays = conflictHorizonDays;
+        this.conflictHorizonSeconds = Duration.ofDays(conflictHorizonDays).toSeconds();
+    }
+
+    /**
+     * One expanded occurrence. {@code originalStart} identifies it within the series even after it
+     * has been moved.
+     */
+    public record Occurrence(BookingSeriesTb series, LocalDateTime originalStart,
+                             LocalDateTime startAt, LocalDateTime endAt, String title, String notes) {
+    }
+
+    /**
+     * Create a series after checking every occurrence against live bookings and other series in
+     * one pass, under the resource lock: the busy intervals over the whole span are loaded once and
+     * each occurrence is probed with a binary search. The last occurrence must end within the
+     * conflict horizon, otherwise the series is rejected.
+     */
+    @Transactional
+    public SeriesCreationResult createSeries(UUID namespaceId, UUID resourceId, UUID userId,
+                                             LocalDateTime startAt, LocalDateTime endAt, String recurrenceRule,
+                                             ZoneId zone, String title, String notes, BookingStatus status,
+                                             AppSecurityContext context) {
+        if (startAt == null || endAt == null || !endAt.isAfter(startAt)) {
+            throw new IllegalArgumentException("Series occurrence must end after it starts");
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(recurrenceRule);
+        ZonedDateTime first = startAt.atZone(StorageTime.STORAGE_ZONE).withZoneSameInstant(zone);
+        long duration = Duration.between(startAt, endAt).toSeconds();
+        long from = StorageTime.toEpoch(startAt);
+        long lastEnd = rule.lastEnd(first, duration);
+        if (lastEnd > from + conflictHorizonSeconds) {
+            throw new IllegalArgumentException("Booking series must end within " + conflictHorizonDays
+                    + " days of its first occurrence; bound the rule with COUNT or UNTIL");
+        }
+
+        lockResource(namespaceId, resourceId);
+        IntervalSet busy = loadBusy(namespaceId, resourceId, from, lastEnd, null, null);
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        rule.expand(first, duration, from, lastEnd, (start, end) -> {
+            if (busy.overlaps(start, end)) {
+                conflicts.add(StorageTime.fromEpoch(start));
+            }
+            return conflicts.size() >= MAX_REPORTED_CONFLICTS ? -1 : 0;
+        });
+        if (!conflicts.isEmpty()) {
+            log.info("Series on resource {} conflicts at {} occurrence(s)", resourceId, conflicts.size());
+            return SeriesCreationResult.conflicted(conflicts);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingSeriesTb tb = new BookingSeriesTb();
+        BookingSeriesId id = new BookingSeriesId(namespaceId, UUID.randomUUID());
+        tb.setId(id);
+        tb.setResourceId(resourceId);
+        tb.setUserId(userId);
+        tb.setTitle(title);
+        tb.setNotes(notes);
+        tb.setRrule(rule.toString());
+        tb.setTimezone(zone.getId());
+        tb.setStartAt(startAt);
+        tb.setEndAt(endAt);
+        tb.setSpanEnd(StorageTime.fromEpoch(lastEnd));
+        tb.setStatus(status != null ? status : BookingStatus.CONFIRMED);
+        tb.setCreatedBy(context.getUserId());
+        tb.setCreatedDate(now);
+        tb.setModifiedBy(context.getUserId());
+        tb.setModifiedDate(now);
+        seriesRepository.save(tb);
+        log.info("Booking series created with id: {} ({})", id.getId(), tb.getRrule());
+        return SeriesCreationResult.created(new BookingSeriesRecord(tb, context));
+    }
+
+    public Optional<BookingSeriesRecord> findSeriesById(UUID namespaceId, UUID seriesId, AppSecurityContext context) {
+        return seriesRepository.findByIdNamespaceIdAndIdId(namespaceId, seriesId)
+                .map(tb -> new BookingSeriesRecord(tb, context));
+    }
+
+    @Transactional
+    public void deleteSeries(UUID namespaceId, UUID seriesId, AppSecurityContext context) {
+        BookingSeriesTb tb = seriesRepository.findByIdNamespaceIdAndIdId(namespaceId, seriesId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking series not found: " + seriesId));
+        LocalDateTime now = LocalDateTime.now();
+        tb.setDeletedDate(now);
+        tb.setModifiedBy(context.getUserId());
+        tb.setModifiedDate(now);
+        seriesRepository.save(tb);
+        log.info("Booking series soft deleted: {}", seriesId);
+    }
+
+    /**
+     * Cancel a single occurrence, identified by its original start.
+     */
+    @Transactional
+    public void cancelOccurrence(UUID namespaceId, UUID seriesId, LocalDateTime originalStart, AppSecurityContext context) {
+        BookingSeriesTb series = requireOccurrence(namespaceId, seriesId, originalStart);
+        BookingSeriesExceptionTb tb = exception(series, originalStart, context);
+        tb.setCancelled(true);
+        tb.setStartAt(null);
+        tb.setEndAt(null);
+        exceptionRepository.save(tb);
+        log.info("Occurrence {} of series {} cancelled", originalStart, seriesId);
+    }
+
+    /**
+     * Move or retitle a single occurrence. Returns false, leaving the occurrence untouched, when
+     * the new interval collides with a booking or another occurrence. The new interval must stay
+     * within the series span, {@code [start_at, span_end)}: series are found through that span,
+     * so an occurrence moved outside it would drop out of every conflict check.
+     */
+    @Transactional
+    public boolean updateOccurrence(UUID namespaceId, UUID seriesId, LocalDateTime originalStart,
+                                    LocalDateTime startAt, LocalDateTime endAt, String title, String notes,
+                                    AppSecurityContext context) {
+        BookingSeriesTb series = requireOccurrence(namespaceId, seriesId, originalStart);
+        if (startAt == null || endAt == null || !endAt.isAfter(startAt)) {
+            throw new IllegalArgumentException("Occurrence must end after it starts");
+        }
+        if (startAt.isBefore(series.getStartAt())
+                || (series.getSpanEnd() != null && endAt.isAfter(series.getSpanEnd()))) {
+            throw new IllegalArgumentException("Occurrence must stay within its series, between "
+                    + series.getStartAt() + " and " + series.getSpanEnd());
+        }
+        long from = StorageTime.toEpoch(startAt);
+        long to = StorageTime.toEpoch(endAt);
+        lockResource(namespaceId, series.getResourceId());
+        // the occurrence being moved must not count against its own new slot
+        if (loadBusy(namespaceId, series.getResourceId(), from, to, seriesId, originalStart).overlaps(from, to)) {
+            return false;
+        }
+        BookingSeriesExceptionTb tb = exception(series, originalStart, context);
+        tb.setCancelled(false);
+        tb.setStartAt(startAt);
+        tb.setEndAt(endAt);
+        tb.setTitle(title);
+        tb.setNotes(notes);
+        exceptionRepository.save(tb);
+        log.info("Occurrence {} of series {} moved to {} - {}", originalStart, seriesId, startAt, endAt);
+        return true;
+    }
+
+    /**
+     * Live occurrences on the resource overlapping {@code [startAt, endAt)}, exceptions applied.
+     */
+    @Transactional(readOnly = true)
+    public List<Occurrence> findOccurrences(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt) {
+        List<Occurrence> result = new ArrayList<>();
+        expandWindow(namespaceId, resourceId, StorageTime.toEpoch(startAt), StorageTime.toEpoch(endAt),
+                null, null, result::add);
+        return result;
+    }
+
+    /**
+     * True when no series occurrence overlaps {@code [startAt, endAt)}.
+     */
+    @Transactional(readOnly = true)
+    public boolean isFree(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt) {
+        return findOccurrences(namespaceId, resourceId, startAt, endAt).isEmpty();
+    }
+
+    /**
+     * The resources among {@code resourceIds} with a live occurrence overlapping
+     * {@code [startAt, endAt)}, found with one series query and one exception query.
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findOccupiedResources(UUID namespaceId, Collection<UUID> resourceIds,
+                                           LocalDateTime startAt, LocalDateTime endAt) {
+        if (resourceIds.isEmpty()) {
+            return Set.of();
+        }
+        List<BookingSeriesTb> seriesList;
+        try (Stream<BookingSeriesTb> stream = seriesRepository.findOverlappingSeriesOfResources(namespaceId, resourceIds,
+                startAt, endAt)) {
+            seriesList = stream.toList();
+        }
+        Set<UUID> occupied = new HashSet<>();
+        expand(namespaceId, seriesList, StorageTime.toEpoch(startAt), StorageTime.toEpoch(endAt), null, null,
+                o -> occupied.add(o.series().getResourceId()));
+        return occupied;
+    }
+
+    /**
+     * Take the resource's write lock, held until the current transaction ends. Callers take it
+     * before checking a new interval for conflicts and keep it across the insert.
+     *
+     * @throws IllegalStateException outside a transaction, where the lock would be released at once
+     */
+    public void lockResource(UUID namespaceId, UUID resourceId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Locking resource " + resourceId + " requires a transaction");
+        }
+        jdbcTemplate.query(LOCK, rs -> null, namespaceId, resourceId);
+    }
+
+    /**
+     * The conflict check of every booking write: take the resource's write lock, then tell whether
+     * {@code [startAt, endAt)} is clear of series occurrences. Overlap with other bookings is left
+     * to booking_no_overlap, which the insert that follows runs into under the same lock.
+     */
+    public boolean lockAndCheck(UUID namespaceId, UUID resourceId, LocalDateTime startAt, LocalDateTime endAt) {
+        lockResource(namespaceId, resourceId);
+        return isFree(namespaceId, resourceId, startAt, endAt);
+    }
+
+    /**
+     * Transient booking row standing in for an occurrence, with a stable id derived from the
+     * series id and original start.
+     */
+    public BookingTb toBooking(Occurrence occurrence) {
+        BookingSeriesTb series = occurrence.series();
+        String key = series.getId().getId() + "/" + StorageTime.toEpoch(occurrence.originalStart());
+        BookingTb tb = new BookingTb();
+        tb.setId(new BookingId(series.getId().getNamespaceId(), UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8))));
+        tb.setResourceId(series.getResourceId());
+        tb.setUserId(series.getUserId());
+        tb.setTitle(occurrence.title());
+        tb.setNotes(occurrence.notes());
+        tb.setStartAt(occurrence.startAt());
+        tb.setEndAt(occurrence.endAt());
+        tb.setStatus(series.getStatus());
+        tb.setCreatedBy(series.getCreatedBy());
+        tb.setCreatedDate(series.getCreatedDate());
+        tb.setModifiedBy(series.getModifiedBy());
+        tb.setModifiedDate(series.getModifiedDate());
+        return tb;
+    }
+
+    private IntervalSet loadBusy(UUID namespaceId, UUID resourceId, long from, long to,
+                                 UUID skipSeriesId, LocalDateTime skipOriginalStart) {
+        IntervalSet busy = new IntervalSet();
+        try (Stream<BookingTb> bookings = bookingRepository.findOverlappingBookings(namespaceId, resourceId,
+                StorageTime.fromEpoch(from), StorageTime.fromEpoch(to))) {
+            bookings.forEach(b -> busy.add(StorageTime.toEpoch(b.getStartAt()), StorageTime.toEpoch(b.getEndAt())));
+        }
+        expandWindow(namespaceId, resourceId, from, to, skipSeriesId, skipOriginalStart,
+                o -> busy.add(StorageTime.toEpoch(o.startAt()), StorageTime.toEpoch(o.endAt())));
+        return busy.merged();
+    }
+
+    private void expandWindow(UUID namespaceId, UUID resourceId, long from, long to,
+                              UUID skipSeriesId, LocalDateTime skipOriginalStart, Consumer<Occurrence> sink) {
+        List<BookingSeriesTb> seriesList;
+        try (Stream<BookingSeriesTb> stream = seriesRepository.findOverlappingSeries(namespaceId, resourceId,
+                StorageTime.fromEpoch(from), StorageTime.fromEpoch(to))) {
+            seriesList = stream.toList();
+        }
+        expand(namespaceId, seriesList, from, to, skipSeriesId, skipOriginalStart, sink);
+    }
+
+    private void expand(UUID namespaceId, List<BookingSeriesTb> seriesList, long from, long to,
+                        UUID skipSeriesId, LocalDateTime skipOriginalStart, Consumer<Occurrence> sink) {
+        if (seriesList.isEmpty()) {
+            return;
+        }
+        long maxDuration = 0;
+        List<UUID> ids = new ArrayList<>(seriesList.size());
+        for (BookingSeriesTb series : seriesList) {
+            maxDuration = Math.max(maxDuration, Duration.between(series.getStartAt(), series.getEndAt()).toSeconds());
+            ids.add(series.getId().getId());
+        }
+        // series id -> original start (epoch) -> exception
+        Map<UUID, Map<Long, BookingSeriesExceptionTb>> exceptions = new HashMap<>();
+        try (Stream<BookingSeriesExceptionTb> stream = exceptionRepository.findForWindow(namespaceId, ids,
+                StorageTime.fromEpoch(from - maxDuration), StorageTime.fromEpoch(from), StorageTime.fromEpoch(to))) {
+            stream.forEach(e -> exceptions.computeIfAbsent(e.getId().getSeriesId(), k -> new HashMap<>())
+                    .put(StorageTime.toEpoch(e.getId().getOriginalStart()), e));
+        }
+        long skipOriginal = skipOriginalStart != null ? StorageTime.toEpoch(skipOriginalStart) : Long.MIN_VALUE;
+
+        for (BookingSeriesTb series : seriesList) {
+            UUID seriesId = series.getId().getId();
+            boolean skipSeries = seriesId.equals(skipSeriesId);
+            if (skipSeries && skipOriginalStart == null) {
+                continue;
+            }
+            Map<Long, BookingSeriesExceptionTb> overrides = exceptions.getOrDefault(seriesId, Map.of());
+            ZonedDateTime first = series.getStartAt().atZone(StorageTime.STORAGE_ZONE)
+                    .withZoneSameInstant(ZoneId.of(series.getTimezone()));
+            long duration = Duration.between(series.getStartAt(), series.getEndAt()).toSeconds();
+            RecurrenceRule.parse(series.getRrule()).expand(first, duration, from, to, (start, end) -> {
+                if (!overrides.containsKey(start) && !(skipSeries && start == skipOriginal)) {
+                    LocalDateTime startAt = StorageTime.fromEpoch(start);
+                    sink.accept(new Occurrence(series, startAt, startAt, StorageTime.fromEpoch(end),
+                            series.getTitle(), series.getNotes()));
+                }
+                return 0;
+            });
+            for (BookingSeriesExceptionTb e : overrides.values()) {
+                if (e.isCancelled() || (skipSeries && StorageTime.toEpoch(e.getId().getOriginalStart()) == skipOriginal)) {
+                    continue;
+                }
+                long start = StorageTime.toEpoch(e.getStartAt());
+                long end = StorageTime.toEpoch(e.getEndAt());
+                if (start < to && end > from) {
+                    sink.accept(new Occurrence(series, e.getId().getOriginalStart(), e.getStartAt(), e.getEndAt(),
+                            e.getTitle() != null ? e.getTitle() : series.getTitle(),
+                            e.getNotes() != null ? e.getNotes() : series.getNotes()));
+                }
+            }
+        }
+    }
+
+    private BookingSeriesTb requireOccurrence(UUID namespaceId, UUID seriesId, LocalDateTime originalStart) {
+        BookingSeriesTb series = seriesRepository.findByIdNamespaceIdAndIdId(namespaceId, seriesId)
+                .filter(s -> s.getDeletedDate() == null)
+                .orElseThrow(() -> new IllegalArgumentException("Booking series not found: " + seriesId));
+        ZonedDateTime first = series.getStartAt().atZone(StorageTime.STORAGE_ZONE)
+                .withZoneSameInstant(ZoneId.of(series.getTimezone()));
+        long duration = Duration.between(series.getStartAt(), series.getEndAt()).toSeconds();
+        long target = StorageTime.toEpoch(originalStart);
+        boolean[] found = {false};
+        RecurrenceRule.parse(series.getRrule()).expand(first, duration, target, target + 1, (start, end) -> {
+            found[0] = start == target;
+            return found[0] ? -1 : 0;
+        });
+        if (!found[0]) {
+            throw new IllegalArgumentException("No occurrence of series " + seriesId + " starts at " + originalStart);
+        }
+        return series;
+    }
+
+    private BookingSeriesExceptionTb exception(BookingSeriesTb series, LocalDateTime originalStart, AppSecurityContext context) {
+        BookingSeriesExceptionId id = new BookingSeriesExceptionId(series.getId().getNamespaceId(),
+                series.getId().getId(), originalStart);
+        return exceptionRepository.findById(id).orElseGet(() -> {
+            BookingSeriesExceptionTb tb = new BookingSeriesExceptionTb();
+            tb.setId(id);
+            tb.setCreatedBy(context.getUserId());
+            tb.setCreatedDate(LocalDateTime.now());
+            return tb;
+        });
+    }
+}
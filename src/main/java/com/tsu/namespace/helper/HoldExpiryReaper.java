@@ -0,0 +1,204 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.entities.BookingHoldTb;
+import com.tsu.namespace.helper.event.HoldExpiredEvent;
+import com.tsu.namespace.helper.support.StorageTime;
+import com.tsu.namespace.helper.support.TimerWheel;
+import com.tsu.namespace.repo.BookingHoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background reaper for expired booking holds across all namespaces.
+ * <p>
+ * Upcoming expirations within {@code horizon-minutes} are loaded into a {@link TimerWheel}
+ * (new holds are added through {@link #track}); the reaper thread ticks the wheel and, when
+ * anything falls due, deletes expired holds in batches of {@code batch-size} through
+ * hold_expiry_idx. A {@link HoldExpiredEvent} is published for every deleted hold once its
+ * batch has committed. Every refill also runs one sweep, which catches holds that expired
+ * while the application was down or were never tracked.
+ */
+@Slf4j
+@Component
+public class HoldExpiryReaper implements SmartLifecycle {
+
+    private final BookingHoldRepository holdRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final int batchSize;
+    private final int maxBatchesPerSweep;
+    private final long horizonMillis;
+    private final int maxTracked;
+
+    private final Object lock = new Object();
+    private TimerWheel<UUID> wheel;
+    // holds expiring at or before this instant are already in the wheel
+    private LocalDateTime loadedUntil;
+    private long nextRefillMillis;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    private final LongAdder reaped = new LongAdder();
+    private final LongAdder sweeps = new LongAdder();
+
+    public HoldExpiryReaper(BookingHoldRepository holdRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${bx.booking.hold-reaper.enabled:true}") boolean enabled,
+                            @Value("${bx.booking.hold-reaper.tick-millis:1000}") long tickMillis,
+                            @Value("${bx.booking.hold-reaper.batch-size:500}") int batchSize,
+                            @Value("${bx.booking.hold-reaper.max-batches-per-sweep:20}") int maxBatchesPerSweep,
+                            @Value("${bx.booking.hold-reaper.horizon-minutes:10}") long horizonMinutes,
+                            @Value("${bx.booking.hold-reaper.max-tracked:100000}") int maxTracked) {
+        this.holdRepository = holdRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.maxBatchesPerSweep = maxBatchesPerSweep;
+        this.horizonMillis = TimeUnit.MINUTES.toMillis(horizonMinutes);
+        this.maxTracked = maxTracked;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        synchronized (lock) {
+            wheel = new TimerWheel<>(tickMillis, System.currentTimeMillis());
+            loadedUntil = null;
+            nextRefillMillis = 0;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hold-expiry-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.scheduleWithFixedDelay(this::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Hold expiry reaper started (tick={}ms, batch={}, horizon={}ms)", tickMillis, batchSize, horizonMillis);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        log.info("Hold expiry reaper stopped, {} holds reaped", reaped.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Register a newly created hold. Holds beyond the loaded horizon are picked up by the next
+     * refill, so only the near ones go into the wheel here.
+     */
+    public void track(UUID holdId, LocalDateTime expiresAt) {
+        if (!running) {
+            return;
+        }
+        synchronized (lock) {
+            if (loadedUntil != null && !expiresAt.isAfter(loadedUntil) && wheel.size() < maxTracked) {
+                wheel.schedule(holdId, toMillis(expiresAt));
+            }
+        }
+    }
+
+    public long getReapedCount() {
+        return reaped.sum();
+    }
+
+    public long getSweepCount() {
+        return sweeps.sum();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean sweep;
+            synchronized (lock) {
+                sweep = wheel.advance(now, id -> { }) > 0;
+                if (now >= nextRefillMillis) {
+                    refill(now);
+                    sweep = true;
+                }
+            }
+            if (sweep) {
+                sweep();
+            }
+        } catch (RuntimeException e) {
+            // keep the schedule alive; the next refill sweeps whatever was missed
+            log.warn("Hold expiry reaper tick failed", e);
+        }
+    }
+
+    private void refill(long now) {
+        LocalDateTime from = loadedUntil != null ? loadedUntil : StorageTime.fromEpoch(now / 1000);
+        LocalDateTime to = StorageTime.fromEpoch((now + horizonMillis) / 1000);
+        int room = maxTracked - wheel.size();
+        if (room > 0 && to.isAfter(from)) {
+            List<BookingHoldTb> upcoming = holdRepository.findHoldsExpiringBetween(from, to, room);
+            for (BookingHoldTb tb : upcoming) {
+                wheel.schedule(tb.getId().getId(), toMillis(tb.getExpiresAt()));
+            }
+            // when truncated, only claim what was actually loaded; the rest comes next refill
+            loadedUntil = upcoming.size() == room ? upcoming.get(upcoming.size() - 1).getExpiresAt() : to;
+            log.debug("Hold expiry reaper tracking {} holds up to {}", wheel.size(), loadedUntil);
+        }
+        nextRefillMillis = now + horizonMillis / 2;
+    }
+
+    private void sweep() {
+        sweeps.increment();
+        LocalDateTime now = LocalDateTime.now();
+        for (int batch = 0; batch < maxBatchesPerSweep && running; batch++) {
+            List<BookingHoldTb> deleted = holdRepository.deleteExpiredHoldBatch(now, batchSize);
+            for (BookingHoldTb tb : deleted) {
+                publish(tb);
+            }
+            reaped.add(deleted.size());
+            if (!deleted.isEmpty()) {
+                log.debug("Reaped {} expired holds", deleted.size());
+            }
+            if (deleted.size() < batchSize) {
+                return;
+            }
+        }
+        // backlog larger than one sweep allows: make sure the next tick continues
+        synchronized (lock) {
+            nextRefillMillis = 0;
+        }
+    }
+
+    private void publish(BookingHoldTb tb) {
+        try {
+            eventPublisher.publishEvent(new HoldExpiredEvent(tb.getId().getNamespaceId(), tb.getId().getId(),
+                    tb.getResourceId(), tb.getUserId(), tb.getStartAt(), tb.getEndAt(), tb.getExpiresAt()));
+        } catch (RuntimeException e) {
+            // a failing listener must not stop the remaining events of the batch
+            log.warn("Hold expired listener failed for hold {}", tb.getId().getId(), e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return StorageTime.toEpoch(time) * 1000;
+    }
+}
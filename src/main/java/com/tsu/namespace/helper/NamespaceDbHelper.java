@@ -28,7 +28,9 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -42,6 +44,10 @@ public class NamespaceDbHelper {
     private final NamespaceUserRepository namespaceUserRepository;
     private final NamespaceRoleRepository namespaceRoleRepository;
     private final NamespaceUserViewRepository namespaceUserViewRepository;
+    private final PermissionDecisionCache permissionDecisionCache;
+    private final NamespaceSnapshotCache namespaceSnapshotCache;
+    private final NamespaceUserViewRefresher userViewRefresher;
+    private final NamespaceUserDirectory userDirectory;
 
     public Stream<NamespaceRecord> getAll(AppSecurityContext context) {
         log.debug("Retrieving all namespaces for user: {}", context.getPrincipal().id());
@@ -53,7 +59,7 @@ public class NamespaceDbHelper {
 
     public Optional<NamespaceRecord> findById(UUID id, AppSecurityContext context) {
         log.debug("Looking up namespace by ID: {}", id);
-        Optional<NamespaceRecord> namespace = namespaceRepository.findById(id)
+        Optional<NamespaceRecord> namespace = namespaceSnapshotCache.findById(id, () -> namespaceRepository.findById(id))
                 .map(v -> {
                     log.trace("Namespace found with ID: {} and name: {}", id, v.getName());
                     return toVal(v, context);
@@ -87,7 +93,7 @@ public class NamespaceDbHelper {
 
     public Optional<NamespaceRecord> findByUri(String uri, AppSecurityContext context) {
         log.debug("Looking up namespace by URI: {}", uri);
-        Optional<NamespaceRecord> result = namespaceRepository.findByUri(uri)
+        Optional<NamespaceRecord> result = namespaceSnapshotCache.findByUri(uri, () -> namespaceRepository.findByUri(uri))
                 .map(v -> {
                     log.trace("Namespace found with URI: {} and ID: {}", uri, v.getId());
                     return toVal(v, context);
@@ -105,6 +111,7 @@ public class NamespaceDbHelper {
             tb.setModifiedBy(context.getNamespaceUserId());
             tb.setModifiedDate(LocalDateTime.now());
             namespaceRoleRepository.save(tb);
+            roleChanged(tb.getId().getNamespaceId());
             log.debug("Namespace role persisted successfully: {}", tb.getId());
         });
     }
@@ -117,6 +124,7 @@ public class NamespaceDbHelper {
             tb.setModifiedBy(context.getPrincipal().id());
             tb.setModifiedDate(LocalDateTime.now());
             namespaceRepository.save(tb);
+            namespaceSnapshotCache.invalidate(tb.getId());
             log.debug("Namespace persisted successfully: {}", tb.getId());
         });
     }
@@ -180,6 +188,7 @@ public class NamespaceDbHelper {
         tb.setModifiedBy(context.getNamespaceUserId());
         tb.setModifiedDate(LocalDateTime.now());
         namespaceRoleRepository.save(tb);
+        roleChanged(tb.getId().getNamespaceId());
         return toVal(tb, context);
     }
 
@@ -207,6 +216,7 @@ public class NamespaceDbHelper {
         }
         tb.setPermissions(JsonValueUtils.getInstance().encodeAsJson(List.of()));
         namespaceUserRepository.save(tb);
+        userChanged(tb.getId());
         return toVal(tb, context);
     }
 
@@ -230,10 +240,12 @@ public class NamespaceDbHelper {
             tb.setModifiedBy(context.getSecurityContext().getPrincipal().id());
             tb.setModifiedDate(LocalDateTime.now());
             namespaceUserRepository.save(tb);
+            userChanged(tb.getId());
         }, role -> {
             role.setModifiedBy(context.getNamespaceUserId());
             role.setModifiedDate(LocalDateTime.now());
             namespaceRoleRepository.save(role);
+            roleChanged(role.getId().getNamespaceId());
         });
     }
 
@@ -242,13 +254,33 @@ public class NamespaceDbHelper {
             tb.setModifiedBy(context.getPrincipal().id());
             tb.setModifiedDate(LocalDateTime.now());
             namespaceUserRepository.save(tb);
+            userChanged(tb.getId());
         }, role -> {
             role.setModifiedBy(e.getId().getId());
             role.setModifiedDate(LocalDateTime.now());
             namespaceRoleRepository.save(role);
+            roleChanged(role.getId().getNamespaceId());
         });
     }
 
+    /**
+     * A user or role of the namespace was written: retire cached grants and schedule the user view.
+     */
+    private void membershipChanged(UUID namespaceId) {
+        permissionDecisionCache.invalidate(namespaceId);
+        userViewRefresher.markDirty(namespaceId);
+    }
+
+    private void userChanged(NamespaceUserId id) {
+        membershipChanged(id.getNamespaceId());
+        userDirectory.userChanged(id.getNamespaceId(), id.getId());
+    }
+
+    private void roleChanged(UUID namespaceId) {
+        membershipChanged(namespaceId);
+        userDirectory.invalidate(namespaceId);
+    }
+
     public Stream<NamespaceRoleRecord> findNamespaceRoles(UUID id, NamespaceContext context) {
         return namespaceRoleRepository.findByIdNamespaceIdOrderByName(id)
                 .map(tb -> toVal(tb, context));
@@ -258,6 +290,18 @@ public class NamespaceDbHelper {
         return namespaceUserRepository.findNamespaceJoinedUserInfoByNamespaceId(namespaceId);
     }
 
+    public Map<Integer, NspUsrVal> resolveNamespaceUsers(UUID namespaceId, Collection<Integer> userIds) {
+        return userDirectory.resolve(namespaceId, userIds);
+    }
+
+    public Map<UUID, NspUsrVal> resolveNamespaceUsersByPrincipal(UUID namespaceId, Collection<UUID> principalIds) {
+        return userDirectory.resolvePrincipals(namespaceId, principalIds);
+    }
+
+    public Map<Integer, NspUsrVal> findNamespaceUserMap(UUID namespaceId) {
+        return userDirectory.findAll(namespaceId);
+    }
+
     public Page<NamespaceUserViewTb> queryUsers(UUID namespaceId, UserFilter filter, Pageable pageable, NamespaceContext context) {
         // Set namespace ID in filter and build specification
         filter.setNamespaceId(namespaceId);
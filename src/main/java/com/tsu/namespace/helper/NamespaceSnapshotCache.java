@@ -0,0 +1,209 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.entities.NamespaceTb;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of namespace rows, keyed by id and URI.
+ * <p>
+ * The cached row is a snapshot that is never handed out: every lookup returns a fresh copy, so a
+ * request can modify and persist its NamespaceRecord without touching other requests' view.
+ * Entries expire after {@code ttl-seconds}, which bounds staleness across nodes, and are retired
+ * at once on this node when NamespaceDbHelper persists the namespace.
+ */
+@Slf4j
+@Component
+public class NamespaceSnapshotCache {
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, UUID> uriIndex = new ConcurrentHashMap<>();
+    // namespace -> clock value of its last invalidation
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public NamespaceSnapshotCache(@Value("${bx.namespace.snapshot-cache.enabled:true}") boolean enabled,
+                                  @Value("${bx.namespace.snapshot-cache.ttl-seconds:60}") long ttlSeconds,
+                                  @Value("${bx.namespace.snapshot-cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<NamespaceTb> findById(UUID id, Supplier<Optional<NamespaceTb>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = live(id);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(copy(entry.snapshot()));
+        }
+        misses.increment();
+        return load(loader);
+    }
+
+    public Optional<NamespaceTb> findByUri(String uri, Supplier<Optional<NamespaceTb>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UUID id = uriIndex.get(uri);
+        Entry entry = id != null ? live(id) : null;
+        // a renamed URI leaves the old mapping behind; only trust it while it still matches
+        if (entry != null && uri.equals(entry.snapshot().getUri())) {
+            hits.increment();
+            return Optional.of(copy(entry.snapshot()));
+        }
+        misses.increment();
+        return load(loader);
+    }
+
+    /**
+     * Retire the namespace's snapshot; called after the row is written. Inside a transaction it is
+     * retired again after commit, since a reload before the commit still reads the old row.
+     */
+    public void invalidate(UUID id) {
+        retire(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    retire(id);
+                }
+            });
+        }
+    }
+
+    private void retire(UUID id) {
+        versions.merge(id, clock.incrementAndGet(), Math::max);
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            uriIndex.remove(removed.snapshot().getUri(), id);
+        }
+        invalidations.increment();
+    }
+
+    public Stats getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return new Stats(h, m, h + m == 0 ? 0d : (double) h / (h + m), expirations.sum(), invalidations.sum(),
+                evictions.sum(), entries.size());
+    }
+
+    public record Stats(long hits, long misses, double hitRate, long expirations, long invalidations,
+                        long evictions, int size) {
+    }
+
+    private Entry live(UUID id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version() < version(id)) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+            if (entries.remove(id, entry)) {
+                expirations.increment();
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    private Optional<NamespaceTb> load(Supplier<Optional<NamespaceTb>> loader) {
+        // read the clock before the row: an invalidation racing the load stamps a later value,
+        // so the entry is born retired instead of caching the old row
+        long stamp = clock.get();
+        Optional<NamespaceTb> loaded = loader.get();
+        loaded.ifPresent(tb -> {
+            if (entries.size() >= maxEntries) {
+                evict();
+            }
+            entries.put(tb.getId(), new Entry(copy(tb), stamp, System.nanoTime()));
+            uriIndex.put(tb.getUri(), tb.getId());
+        });
+        return loaded;
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        int removed = 0;
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        // expired and retired entries first; then arbitrary ones until a tenth of the room is free
+        while (it.hasNext()) {
+            Map.Entry<UUID, Entry> e = it.next();
+            if (now - e.getValue().loadedAt() > ttlNanos || e.getValue().version() < version(e.getKey())) {
+                it.remove();
+                uriIndex.remove(e.getValue().snapshot().getUri(), e.getKey());
+                removed++;
+            }
+        }
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && entries.size() > maxEntries - maxEntries / 10) {
+            Map.Entry<UUID, Entry> e = it.next();
+            it.remove();
+            uriIndex.remove(e.getValue().snapshot().getUri(), e.getKey());
+            removed++;
+        }
+        evictions.add(removed);
+        log.debug("Namespace snapshot cache evicted {} entries", removed);
+    }
+
+    private long version(UUID id) {
+        Long version = versions.get(id);
+        return version != null ? version : 0L;
+    }
+
+    private static NamespaceTb copy(NamespaceTb source) {
+        NamespaceTb tb = new NamespaceTb();
+        tb.setId(source.getId());
+        tb.setName(source.getName());
+        tb.setUri(source.getUri());
+        tb.setOwnerId(source.getOwnerId());
+        tb.setContactEmail(source.getContactEmail());
+        tb.setBucket(source.getBucket());
+        tb.setProps(source.getProps());
+        tb.setActive(source.isActive());
+        tb.setExpirationDate(source.getExpirationDate());
+        tb.setDescription(source.getDescription());
+        tb.setWebsite(source.getWebsite());
+        tb.setLogoImageUrl(source.getLogoImageUrl());
+        tb.setBackgroundImageUrl(source.getBackgroundImageUrl());
+        tb.setAccessLevel(source.getAccessLevel());
+        tb.setLanguageTag(source.getLanguageTag());
+        tb.setTimezoneId(source.getTimezoneId());
+        tb.setDatePattern(source.getDatePattern());
+        tb.setDatetimePattern(source.getDatetimePattern());
+        tb.setCreatedBy(source.getCreatedBy());
+        tb.setCreatedDate(source.getCreatedDate());
+        tb.setModifiedBy(source.getModifiedBy());
+        tb.setModifiedDate(source.getModifiedDate());
+        return tb;
+    }
+
+    private record Entry(NamespaceTb snapshot, long version, long loadedAt) {
+    }
+}
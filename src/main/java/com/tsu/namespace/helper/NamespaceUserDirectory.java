@@ -0,0 +1,330 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.helper.support.CompactUserTable;
+import com.tsu.namespace.repo.NamespaceUserRepository;
+import com.tsu.namespace.val.NspUsrVal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Process-wide directory of namespace members, used to render user names next to other rows.
+ * <p>
+ * Each namespace's directory fills on demand: {@link #resolve} and {@link #resolvePrincipals} fetch
+ * only the ids they have not seen. Once a namespace has more than {@code compact-threshold} members
+ * cached, or a caller asks for {@link #findAll}, the full list is loaded once into a
+ * {@link CompactUserTable}, and later fetches sit in small maps on top of it. When NamespaceDbHelper
+ * writes a user, that one user is marked after commit and fetched again on next use; a role write
+ * drops the namespace's directory, since role names are copied into every member. Directories
+ * expire after {@code ttl-seconds}, which bounds staleness across nodes, and at most
+ * {@code max-namespaces} are kept, least recently used first out.
+ */
+@Slf4j
+@Component
+public class NamespaceUserDirectory {
+
+    private final NamespaceUserRepository namespaceUserRepository;
+    private final TransactionTemplate readTransaction;
+    private final long ttlNanos;
+    private final int compactThreshold;
+    private final Map<UUID, Directory> directories;
+    private final AtomicLong marks = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fullLoads = new LongAdder();
+    private final LongAdder deltas = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public NamespaceUserDirectory(NamespaceUserRepository namespaceUserRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${bx.namespace.user-directory.ttl-seconds:300}") long ttlSeconds,
+                                  @Value("${bx.namespace.user-directory.max-namespaces:1000}") int maxNamespaces,
+                                  @Value("${bx.namespace.user-directory.compact-threshold:1024}") int compactThreshold) {
+        this.namespaceUserRepository = namespaceUserRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.compactThreshold = compactThreshold;
+        this.directories = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Directory> eldest) {
+                return size() > maxNamespaces;
+            }
+        });
+    }
+
+    /**
+     * Members of the namespace by user id; ids that are not members are absent from the result.
+     */
+    public Map<Integer, NspUsrVal> resolve(UUID namespaceId, Collection<Integer> userIds) {
+        Directory directory = directory(namespaceId);
+        Map<Integer, NspUsrVal> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (userId == null || result.containsKey(userId)) {
+                continue;
+            }
+            if (directory.stale.containsKey(userId)) {
+                missing.add(userId);
+                continue;
+            }
+            CompactUserTable table = directory.table;
+            NspUsrVal val = directory.byId.get(userId);
+            if (val == null && table != null) {
+                val = table.get(userId);
+            }
+            if (val == null && table == null) {
+                missing.add(userId);
+            } else if (val != null && val != NspUsrVal.EMPTY) {
+                result.put(userId, val);
+            }
+        }
+        hits.add(result.size());
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            fetch(directory, missing, () -> namespaceUserRepository.findNamespaceJoinedUserInfoByIds(namespaceId, missing).toList())
+                    .forEach(val -> result.put(val.userId(), val));
+            compactIfLarge(namespaceId, directory);
+        }
+        return result;
+    }
+
+    /**
+     * Members of the namespace by principal id, as stored in the created/modified/approved columns.
+     */
+    public Map<UUID, NspUsrVal> resolvePrincipals(UUID namespaceId, Collection<UUID> principalIds) {
+        Directory directory = directory(namespaceId);
+        Map<UUID, NspUsrVal> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID principalId : principalIds) {
+            if (principalId == null || result.containsKey(principalId) || directory.absentPrincipals.contains(principalId)) {
+                continue;
+            }
+            CompactUserTable table = directory.table;
+            NspUsrVal val = directory.byPrincipal.get(principalId);
+            if (val == null && table != null) {
+                val = table.getByPrincipal(principalId);
+                // a table row is superseded by anything fetched for the same user since
+                if (val != null && directory.byId.containsKey(val.userId())) {
+                    val = null;
+                }
+            }
+            if (val != null && !directory.stale.containsKey(val.userId())) {
+                result.put(principalId, val);
+            } else if (val != null || table == null || !directory.stale.isEmpty()) {
+                // a stale user may be missing from every index; only its user id is known
+                missing.add(principalId);
+            }
+        }
+        hits.add(result.size());
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            long writes = directory.writes.get();
+            fetch(directory, null, () -> namespaceUserRepository.findNamespaceJoinedUserInfoByPrincipalIds(namespaceId, missing).toList())
+                    .forEach(val -> result.put(val.principalId(), val));
+            // remember non-members unless a user was written while the query ran
+            if (directory.writes.get() == writes) {
+                missing.stream().filter(id -> !result.containsKey(id)).forEach(directory.absentPrincipals::add);
+            }
+            compactIfLarge(namespaceId, directory);
+        }
+        return result;
+    }
+
+    /**
+     * Every member of the namespace by user id. Loads the full list once per directory; later calls
+     * only refetch users written since. The map is built per call, so callers that need a few users
+     * should use {@link #resolve}.
+     */
+    public Map<Integer, NspUsrVal> findAll(UUID namespaceId) {
+        Directory directory = directory(namespaceId);
+        if (directory.table == null) {
+            loadTable(namespaceId, directory);
+        }
+        if (!directory.stale.isEmpty()) {
+            List<Integer> stale = new ArrayList<>(directory.stale.keySet());
+            fetch(directory, stale, () -> namespaceUserRepository.findNamespaceJoinedUserInfoByIds(namespaceId, stale).toList());
+        }
+        Map<Integer, NspUsrVal> all = new HashMap<>(directory.table.size() + directory.byId.size());
+        directory.table.forEach(val -> all.put(val.userId(), val));
+        all.putAll(directory.byId);
+        all.values().removeIf(val -> val == NspUsrVal.EMPTY);
+        return Collections.unmodifiableMap(all);
+    }
+
+    /**
+     * A namespace user was inserted or updated. The user is marked after commit and fetched again
+     * on next use; a null id (not yet assigned) drops the whole namespace.
+     */
+    public void userChanged(UUID namespaceId, Integer userId) {
+        if (userId == null) {
+            invalidate(namespaceId);
+            return;
+        }
+        afterCommit(() -> {
+            Directory directory = directories.get(namespaceId);
+            if (directory != null) {
+                directory.writes.incrementAndGet();
+                // the user may have joined under a principal remembered as a non-member
+                directory.absentPrincipals.clear();
+                directory.stale.put(userId, marks.incrementAndGet());
+                NspUsrVal old = directory.byId.remove(userId);
+                if (old != null && old != NspUsrVal.EMPTY) {
+                    directory.byPrincipal.remove(old.principalId(), old);
+                }
+                deltas.increment();
+            }
+        });
+    }
+
+    /**
+     * Drop the namespace's directory; used when a role changes, as members carry the role name.
+     */
+    public void invalidate(UUID namespaceId) {
+        afterCommit(() -> {
+            if (directories.remove(namespaceId) != null) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    public Stats getStats() {
+        List<Directory> snapshot;
+        synchronized (directories) {
+            snapshot = new ArrayList<>(directories.values());
+        }
+        long compactMembers = 0;
+        long compactBytes = 0;
+        long overlayMembers = 0;
+        for (Directory directory : snapshot) {
+            CompactUserTable table = directory.table;
+            if (table != null) {
+                compactMembers += table.size();
+                compactBytes += table.estimatedBytes();
+            }
+            overlayMembers += directory.byId.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), fullLoads.sum(), deltas.sum(), invalidations.sum(), snapshot.size(),
+                compactMembers, compactBytes, overlayMembers);
+    }
+
+    /**
+     * {@code hits}/{@code misses} count individual ids; {@code deltas} users refetched after a write.
+     * {@code overlayMembers} are users held in maps rather than a compact table.
+     */
+    public record Stats(long hits, long misses, long fullLoads, long deltas, long invalidations, int namespaces,
+                        long compactMembers, long compactBytes, long overlayMembers) {
+    }
+
+    private Directory directory(UUID namespaceId) {
+        long now = System.nanoTime();
+        synchronized (directories) {
+            Directory directory = directories.get(namespaceId);
+            if (directory == null || now - directory.createdAt > ttlNanos) {
+                directory = new Directory(now);
+                directories.put(namespaceId, directory);
+            }
+            return directory;
+        }
+    }
+
+    private void compactIfLarge(UUID namespaceId, Directory directory) {
+        if (directory.table == null && directory.byId.size() > compactThreshold) {
+            loadTable(namespaceId, directory);
+        }
+    }
+
+    private void loadTable(UUID namespaceId, Directory directory) {
+        fullLoads.increment();
+        Map<Integer, Long> marked = Map.copyOf(directory.stale);
+        List<NspUsrVal> rows = readTransaction.execute(status ->
+                namespaceUserRepository.findNamespaceJoinedUserInfoByNamespaceId(namespaceId).toList());
+        CompactUserTable table = CompactUserTable.of(rows != null ? rows : List.of());
+        // the table is at least as new as anything fetched before it; writes during the load stay marked
+        directory.table = table;
+        directory.byId.clear();
+        directory.byPrincipal.clear();
+        marked.forEach(directory.stale::remove);
+        log.debug("Compacted {} members of namespace {} into {} bytes", table.size(), namespaceId, table.estimatedBytes());
+    }
+
+    /**
+     * Run {@code query} and store its rows. {@code settles} are the user ids the query is known to
+     * cover; stale ones are unmarked unless written again while it ran, and those it did not return
+     * are recorded as gone, so non-members are not queried again. Null settles only the users it
+     * returned.
+     */
+    private List<NspUsrVal> fetch(Directory directory, Collection<Integer> settles, Supplier<List<NspUsrVal>> query) {
+        Map<Integer, Long> marked = Map.copyOf(directory.stale);
+        List<NspUsrVal> rows = readTransaction.execute(status -> query.get());
+        if (rows == null) {
+            rows = List.of();
+        }
+        for (NspUsrVal val : rows) {
+            directory.byId.put(val.userId(), val);
+            directory.byPrincipal.put(val.principalId(), val);
+        }
+        if (settles != null) {
+            for (Integer userId : settles) {
+                // a user written since stays marked, so this placeholder is never trusted for it
+                directory.byId.putIfAbsent(userId, NspUsrVal.EMPTY);
+            }
+        }
+        Stream<Integer> covered = settles != null ? settles.stream() : rows.stream().map(NspUsrVal::userId);
+        // a mark raised after the query started stays: the row read may predate that write
+        covered.filter(marked::containsKey).forEach(id -> directory.stale.remove(id, marked.get(id)));
+        return rows;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Directory {
+
+        // rows fetched on top of the table (or instead of it); NspUsrVal.EMPTY marks a user that is gone
+        private final Map<Integer, NspUsrVal> byId = new ConcurrentHashMap<>();
+        private final Map<UUID, NspUsrVal> byPrincipal = new ConcurrentHashMap<>();
+        // user id -> mark of its latest write since it was cached; the entry may be missing or outdated
+        private final Map<Integer, Long> stale = new ConcurrentHashMap<>();
+        // principals found not to be members; cleared on any user write
+        private final Set<UUID> absentPrincipals = ConcurrentHashMap.newKeySet();
+        private final AtomicLong writes = new AtomicLong();
+        private final long createdAt;
+        private volatile CompactUserTable table;
+
+        private Directory(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.tsu.namespace.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps namespace_user_mv in step with namespace_user and namespace_role writes.
+ * <p>
+ * NamespaceDbHelper marks a namespace dirty once its user/role write commits. Marks are coalesced:
+ * a namespace is refreshed when it has been quiet for {@code debounce-millis}, or at the latest
+ * {@code max-delay-millis} after it first became dirty. In {@link Mode#FULL} one
+ * {@code REFRESH MATERIALIZED VIEW CONCURRENTLY} covers every namespace due; in
+ * {@link Mode#INCREMENTAL} namespace_user_mv is a plain table (see doc/namespace-user-mv.sql)
+ * and only the due namespaces' rows are rebuilt. Edits to user_base alone are not tracked.
+ */
+@Slf4j
+@Component
+public class NamespaceUserViewRefresher implements SmartLifecycle {
+
+    private static final String REFRESH_FULL = "REFRESH MATERIALIZED VIEW CONCURRENTLY namespace_user_mv";
+
+    private static final String DELETE_NAMESPACE = "DELETE FROM namespace_user_mv WHERE namespace_id = ?";
+
+    private static final String INSERT_NAMESPACE = """
+            INSERT INTO namespace_user_mv
+            SELECT nu.id, nu.namespace_id, nu.principal_id, r.name AS role, nu.display_name, nu.type,
+                   nu.permissions, nu.entry_id, nu.active, nu.activation_date, nu.expiration_date,
+                   nu.approved_by, nu.approved_date, nu.created_by, nu.created_date, nu.modified_by,
+                   nu.modified_date, ub.first_name, ub.last_name, ub.email, ub.phone, ub.image_url,
+                   ub.profile, ub.preference, ub.active AS user_active
+            FROM namespace_user nu
+            INNER JOIN user_base ub ON nu.principal_id = ub.id
+            LEFT JOIN namespace_role r ON nu.role_id = r.id
+            WHERE nu.namespace_id = ?
+            """;
+
+    public enum Mode {
+        FULL,
+        INCREMENTAL
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate refreshTransaction;
+    private final boolean enabled;
+    private final Mode mode;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final long tickMillis;
+
+    private final Map<UUID, Dirty> dirty = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    private final LongAdder marks = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshedNamespaces = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long lastRefreshMillis;
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+
+    public NamespaceUserViewRefresher(DataSource dataSource,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${bx.namespace.user-view.refresh.enabled:true}") boolean enabled,
+                                      @Value("${bx.namespace.user-view.refresh.mode:FULL}") Mode mode,
+                                      @Value("${bx.namespace.user-view.refresh.debounce-millis:2000}") long debounceMillis,
+                                      @Value("${bx.namespace.user-view.refresh.max-delay-millis:30000}") long maxDelayMillis,
+                                      @Value("${bx.namespace.user-view.refresh.tick-millis:500}") long tickMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.mode = mode;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.tickMillis = tickMillis;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "namespace-user-view-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Namespace user view refresher started (mode={}, debounce={}ms, maxDelay={}ms)", mode, debounceMillis, maxDelayMillis);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (!dirty.isEmpty()) {
+            log.info("Namespace user view refresher stopped with {} namespaces pending", dirty.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Record that the namespace's users or roles changed. Inside a transaction the mark is
+     * applied after commit, so a refresh never runs ahead of the write it is meant to pick up.
+     */
+    public void markDirty(UUID namespaceId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark(namespaceId);
+                }
+            });
+        } else {
+            mark(namespaceId);
+        }
+    }
+
+    public Stats getStats() {
+        long now = System.currentTimeMillis();
+        long oldest = 0;
+        for (Dirty d : dirty.values()) {
+            oldest = Math.max(oldest, now - d.firstMillis());
+        }
+        return new Stats(mode, dirty.size(), oldest, lastLagMillis, maxLagMillis, lastRefreshMillis,
+                marks.sum(), refreshes.sum(), refreshedNamespaces.sum(), failures.sum());
+    }
+
+    /**
+     * {@code currentLagMillis} is how long the oldest pending change has been invisible in the view;
+     * {@code lastLagMillis}/{@code maxLagMillis} are the same measured at refresh time.
+     */
+    public record Stats(Mode mode, int pendingNamespaces, long currentLagMillis, long lastLagMillis, long maxLagMillis,
+                        long lastRefreshMillis, long marks, long refreshes, long refreshedNamespaces, long failures) {
+    }
+
+    private void mark(UUID namespaceId) {
+        long now = System.currentTimeMillis();
+        dirty.merge(namespaceId, new Dirty(now, now), (old, fresh) -> new Dirty(old.firstMillis(), now));
+        marks.increment();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<UUID> due = new ArrayList<>();
+            dirty.forEach((id, d) -> {
+                if (now - d.lastMillis() >= debounceMillis || now - d.firstMillis() >= maxDelayMillis) {
+                    due.add(id);
+                }
+            });
+            if (due.isEmpty()) {
+                return;
+            }
+            // a full refresh picks up every pending change, due or not
+            List<UUID> covered = mode == Mode.FULL ? new ArrayList<>(dirty.keySet()) : due;
+            Map<UUID, Dirty> taken = new HashMap<>();
+            for (UUID id : covered) {
+                Dirty d = dirty.remove(id);
+                if (d != null) {
+                    taken.put(id, d);
+                }
+            }
+            refresh(taken);
+        } catch (RuntimeException e) {
+            log.warn("Namespace user view refresh tick failed", e);
+        }
+    }
+
+    private void refresh(Map<UUID, Dirty> taken) {
+        long started = System.currentTimeMillis();
+        try {
+            if (mode == Mode.FULL) {
+                jdbcTemplate.execute(REFRESH_FULL);
+            } else {
+                for (UUID namespaceId : taken.keySet()) {
+                    refreshTransaction.executeWithoutResult(status -> {
+                        jdbcTemplate.update(DELETE_NAMESPACE, namespaceId);
+                        jdbcTemplate.update(INSERT_NAMESPACE, namespaceId);
+                    });
+                }
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            // put the marks back, keeping the original first-dirty time for the lag figures
+            taken.forEach((id, d) -> dirty.merge(id, d, (newer, old) -> new Dirty(old.firstMillis(), newer.lastMillis())));
+            log.warn("Refresh of namespace_user_mv failed for {} namespaces", taken.size(), e);
+            return;
+        }
+        long finished = System.currentTimeMillis();
+        long lag = 0;
+        for (Dirty d : taken.values()) {
+            lag = Math.max(lag, finished - d.firstMillis());
+        }
+        refreshes.increment();
+        refreshedNamespaces.add(taken.size());
+        lastRefreshMillis = finished - started;
+        lastLagMillis = lag;
+        maxLagMillis = Math.max(maxLagMillis, lag);
+        log.debug("Refreshed namespace_user_mv ({}) for {} namespaces in {}ms, lag {}ms", mode, taken.size(), lastRefreshMillis, lag);
+    }
+
+    private record Dirty(long firstMillis, long lastMillis) {
+    }
+}
@@ -2,22 +2,19 @@ package com.tsu.namespace.helper;
 
 import com.tsu.auth.security.NamespaceContext;
 import com.tsu.namespace.entities.NumberHistoryTb;
-import com.tsu.namespace.entities.NumberSequenceTb;
 import com.tsu.namespace.entities.NumberTb;
 import com.tsu.namespace.entities.id.NumberHistoryId;
 import com.tsu.namespace.entities.id.NumberId;
-import com.tsu.namespace.entities.id.NumberSequenceId;
+import com.tsu.namespace.helper.support.SequenceFormat;
 import com.tsu.namespace.record.NumberRecord;
-import com.tsu.namespace.record.NumberSeqRecord;
 import com.tsu.namespace.repo.NumberHistoryRepository;
 import com.tsu.namespace.repo.NumberRepository;
-import com.tsu.namespace.repo.NumberSequenceRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -27,8 +24,9 @@ import java.util.stream.Stream;
 public class NumberDbHelper {
 
     private final NumberRepository numberRepository;
-    private final NumberSequenceRepository sequenceRepository;
     private final NumberHistoryRepository historyRepository;
+    private final NumberSequenceAllocator sequenceAllocator;
+    private final NumberHistoryWriter historyWriter;
 
 
     public Optional<NumberRecord> findNumberByNamespaceIdAndName(UUID id, String name) {
@@ -46,40 +44,68 @@ public class NumberDbHelper {
                 .map(this::build);
     }
 
-    public Optional<NumberSeqRecord> findNumberSeqByNamespaceIdAndPrefix(UUID id, String prefix) {
-        return sequenceRepository.findByIdNamespaceIdAndPrefix(id, prefix)
-                .map(this::build);
-    }
-
     private NumberRecord build(NumberTb tb) {
         return new NumberRecord(tb, numberRepository::save);
     }
 
-    private NumberSeqRecord build(NumberSequenceTb tb) {
-        return new NumberSeqRecord(tb, sequenceRepository::save);
+    /**
+     * Next value of the namespace's sequence for {@code prefix}, see {@link NumberSequenceAllocator}.
+     */
+    public int nextSequence(UUID namespaceId, String prefix) {
+        return sequenceAllocator.next(namespaceId, prefix);
     }
 
-    public NumberSeqRecord addNumberSequence(UUID namespaceId, String prefix) {
-        NumberSequenceTb s = new NumberSequenceTb();
-        NumberSequenceId id = new NumberSequenceId();
-        id.setNamespaceId(namespaceId);
-        s.setId(id);
-        s.setCurrentSeq(0);
-        s.setPrefix(prefix);
-        sequenceRepository.save(s);
-        return build(s);
+    /**
+     * Take the next value of the {@code prefix} sequence, format it and record it in number_history.
+     * Number types configured as gapless take the value, and write its history, in one transaction
+     * under the sequence's lock; the others take it from a reserved block and batch the history.
+     */
+    public String issueNumber(UUID namespaceId, String numberType, SequenceFormat format, NamespaceContext context) {
+        NumberSequenceAllocator.GapMode mode = sequenceAllocator.modeFor(numberType);
+        return sequenceAllocator.allocate(namespaceId, format.getPrefix(), mode, next -> {
+            String number = format.format(next);
+            addHistory(namespaceId, List.of(number), mode, context);
+            return number;
+        });
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void addHistory(UUID namespaceId, String number, NamespaceContext context) {
-        NumberHistoryTb h = new NumberHistoryTb();
-        NumberHistoryId id = new NumberHistoryId();
-        id.setNamespaceId(namespaceId);
-        h.setId(id);
-        h.setNumber(number);
-        h.setCreatedBy(context.getNamespaceUserId());
-        h.setCreatedDate(LocalDateTime.now());
-        historyRepository.save(h);
+    /**
+     * {@code count} consecutive numbers taken with a single sequence update, in order.
+     */
+    public List<String> issueNumbers(UUID namespaceId, String numberType, SequenceFormat format, int count,
+                                     NamespaceContext context) {
+        NumberSequenceAllocator.GapMode mode = sequenceAllocator.modeFor(numberType);
+        return sequenceAllocator.allocateRange(namespaceId, format.getPrefix(), mode, count, first -> {
+            List<String> numbers = new ArrayList<>(count);
+            StringBuilder builder = new StringBuilder(format.capacity());
+            for (int i = 0; i < count; i++) {
+                builder.setLength(0);
+                numbers.add(format.appendTo(builder, first + i).toString());
+            }
+            addHistory(namespaceId, numbers, mode, context);
+            return numbers;
+        });
+    }
+
+    private void addHistory(UUID namespaceId, List<String> numbers, NumberSequenceAllocator.GapMode mode,
+                            NamespaceContext context) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NumberHistoryTb> rows = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            NumberHistoryTb h = new NumberHistoryTb();
+            NumberHistoryId id = new NumberHistoryId();
+            id.setNamespaceId(namespaceId);
+            h.setId(id);
+            h.setNumber(number);
+            h.setCreatedBy(context.getNamespaceUserId());
+            h.setCreatedDate(now);
+            rows.add(h);
+        }
+        if (mode == NumberSequenceAllocator.GapMode.GAPLESS) {
+            historyRepository.saveAll(rows);
+        } else {
+            rows.forEach(historyWriter::write);
+        }
     }
 
     public NumberRecord addNumber(String type, UUID namespaceId, String name, String prefix, int length, String suffix,
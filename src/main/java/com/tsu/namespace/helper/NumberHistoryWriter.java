@@ -0,0 +1,154 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.entities.NumberHistoryTb;
+import com.tsu.namespace.helper.support.RingBuffer;
+import com.tsu.namespace.repo.NumberHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes number_history rows in JDBC batches from a background thread, instead of one
+ * REQUIRES_NEW insert per generated number. Rows are queued in a {@link RingBuffer}; when it is
+ * full, or the writer is not running, the row is saved inline. Rows still queued when the process
+ * dies are lost, at most {@code capacity} rows or {@code flush-interval-millis} worth.
+ */
+@Slf4j
+@Component
+public class NumberHistoryWriter implements SmartLifecycle {
+
+    private static final String INSERT = """
+            INSERT INTO number_history (namespace_id, number, created_by, created_date)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final NumberHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final RingBuffer<NumberHistoryTb> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder inline = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public NumberHistoryWriter(NumberHistoryRepository historyRepository,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${bx.number.history.capacity:8192}") int capacity,
+                               @Value("${bx.number.history.batch-size:200}") int batchSize,
+                               @Value("${bx.number.history.flush-interval-millis:500}") long flushIntervalMillis) {
+        this.historyRepository = historyRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.buffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "number-history-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Number history writer stopped: {} written, {} inline, {} failed", written.sum(), inline.sum(), failed.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queue a history row; it is committed on its own, independently of the caller's transaction.
+     */
+    public void write(NumberHistoryTb row) {
+        if (running && buffer.offer(row)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        batchTransaction.executeWithoutResult(status -> historyRepository.save(row));
+        inline.increment();
+    }
+
+    public Stats getStats() {
+        return new Stats(written.sum(), inline.sum(), failed.sum(), buffer.size());
+    }
+
+    public record Stats(long written, long inline, long failed, int pending) {
+    }
+
+    private void run() {
+        List<NumberHistoryTb> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            int n = buffer.drain(batch::add, batchSize);
+            if (n > 0) {
+                flush(batch);
+                batch.clear();
+                if (n == batchSize) {
+                    continue;
+                }
+            }
+            if (running) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            } else if (n == 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void flush(List<NumberHistoryTb> batch) {
+        try {
+            batchTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, row) -> {
+                        ps.setObject(1, row.getId().getNamespaceId());
+                        ps.setString(2, row.getNumber());
+                        ps.setObject(3, row.getCreatedBy());
+                        ps.setObject(4, row.getCreatedDate());
+                    }));
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.error("Number history batch of {} could not be written", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.tsu.namespace.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Hands out number_sequence values per (namespace, prefix).
+ * <p>
+ * Values are taken from the row with one {@code UPDATE ... RETURNING}, so concurrent callers never
+ * see the same value and never read-modify-write the row in Java. In {@link GapMode#FAST} a whole
+ * block of {@code block-size} values is reserved in its own transaction and served from memory;
+ * values of a block still unused when the process stops, or taken by a caller that rolls back, are
+ * skipped. In {@link GapMode#GAPLESS} each value is taken under a {@code pg_advisory_xact_lock}
+ * on (namespace, prefix) in the caller's transaction, together with whatever the caller records for
+ * it, so a rollback returns the value; callers of one sequence are serialized until commit. The
+ * default mode is {@code bx.number.sequence.mode}; number types listed in
+ * {@code bx.number.sequence.gapless-types} are always gapless.
+ */
+@Slf4j
+@Component
+public class NumberSequenceAllocator {
+
+    // the two-int form keys the lock on (namespace, prefix)
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(hashtext(CAST(? AS text)), hashtext(COALESCE(CAST(? AS text), '')))";
+
+    private static final String CREATE = """
+            INSERT INTO number_sequence (namespace_id, prefix, current_seq, version)
+            SELECT ?, CAST(? AS text), 0, 0
+            WHERE NOT EXISTS (SELECT 1 FROM number_sequence WHERE namespace_id = ? AND prefix IS NOT DISTINCT FROM CAST(? AS text))
+            """;
+
+    private static final String RESERVE = """
+            UPDATE number_sequence SET current_seq = COALESCE(current_seq, 0) + ?, version = version + 1
+            WHERE namespace_id = ? AND prefix IS NOT DISTINCT FROM CAST(? AS text)
+            RETURNING current_seq
+            """;
+
+    public enum GapMode {
+        FAST,
+        GAPLESS
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final TransactionTemplate callerTransaction;
+    private final GapMode mode;
+    private final int blockSize;
+    private final Set<String> gaplessTypes;
+
+    private final Map<Key, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<Key, Object> reserveLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder gapless = new LongAdder();
+    private final LongAdder reservations = new LongAdder();
+
+    public NumberSequenceAllocator(DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${bx.number.sequence.mode:FAST}") GapMode mode,
+                                   @Value("${bx.number.sequence.block-size:50}") int blockSize,
+                                   @Value("${bx.number.sequence.gapless-types:}") Set<String> gaplessTypes) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("bx.number.sequence.block-size must be positive: " + blockSize);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.callerTransaction = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.blockSize = blockSize;
+        this.gaplessTypes = Set.copyOf(gaplessTypes);
+    }
+
+    /**
+     * Gap mode of a number type; null for sequences not tied to a number definition.
+     */
+    public GapMode modeFor(String numberType) {
+        return numberType != null && gaplessTypes.contains(numberType) ? GapMode.GAPLESS : mode;
+    }
+
+    /**
+     * Next value of the namespace's sequence for {@code prefix} in the default mode; the row is
+     * created on first use.
+     */
+    public int next(UUID namespaceId, String prefix) {
+        return allocate(namespaceId, prefix, mode, value -> value);
+    }
+
+    /**
+     * Take the next value and pass it to {@code issue}. In {@link GapMode#GAPLESS} the lock, the
+     * increment and {@code issue} share one transaction (the caller's, if any), so anything
+     * {@code issue} writes commits or rolls back with the value.
+     */
+    public <T> T allocate(UUID namespaceId, String prefix, GapMode gapMode, IntFunction<T> issue) {
+        allocated.increment();
+        if (gapMode == GapMode.GAPLESS) {
+            gapless.increment();
+            return callerTransaction.execute(status -> {
+                lock(namespaceId, prefix);
+                return issue.apply(reserve(namespaceId, prefix, 1));
+            });
+        }
+        return issue.apply(nextFromBlock(namespaceId, prefix));
+    }
+
+    /**
+     * Take {@code count} consecutive values with one update and pass the first to {@code issue}.
+     * The range never comes from a cached block, so it is contiguous in either mode; in
+     * {@link GapMode#GAPLESS} it shares the caller's transaction like {@link #allocate}.
+     */
+    public <T> T allocateRange(UUID namespaceId, String prefix, GapMode gapMode, int count, IntFunction<T> issue) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number count must be positive: " + count);
+        }
+        allocated.add(count);
+        if (gapMode == GapMode.GAPLESS) {
+            gapless.add(count);
+            return callerTransaction.execute(status -> {
+                lock(namespaceId, prefix);
+                return issue.apply(reserve(namespaceId, prefix, count) - count + 1);
+            });
+        }
+        int last = ownTransaction.execute(status -> reserve(namespaceId, prefix, count));
+        return issue.apply(last - count + 1);
+    }
+
+    private int nextFromBlock(UUID namespaceId, String prefix) {
+        Key key = new Key(namespaceId, prefix);
+        Block block = blocks.get(key);
+        long value = block != null ? block.take() : -1;
+        if (value >= 0) {
+            return (int) value;
+        }
+        synchronized (reserveLocks.computeIfAbsent(key, k -> new Object())) {
+            // another caller may have installed a fresh block while this one waited
+            block = blocks.get(key);
+            value = block != null ? block.take() : -1;
+            if (value >= 0) {
+                return (int) value;
+            }
+            int last = ownTransaction.execute(status -> reserve(namespaceId, prefix, blockSize));
+            Block fresh = new Block(last - blockSize + 1, last);
+            value = fresh.take();
+            blocks.put(key, fresh);
+            return (int) value;
+        }
+    }
+
+    public Stats getStats() {
+        long cached = 0;
+        for (Block block : blocks.values()) {
+            cached += block.remaining();
+        }
+        return new Stats(mode, blockSize, allocated.sum(), gapless.sum(), reservations.sum(), blocks.size(), cached);
+    }
+
+    /**
+     * {@code reservations} counts UPDATEs against number_sequence; {@code cachedValues} the values
+     * reserved but not handed out yet, which are lost on shutdown.
+     */
+    public record Stats(GapMode mode, int blockSize, long allocated, long gapless, long reservations,
+                        int cachedSequences, long cachedValues) {
+    }
+
+    /**
+     * Advance the row by {@code count} in the current transaction and return its new value, the
+     * last one reserved.
+     */
+    private int reserve(UUID namespaceId, String prefix, int count) {
+        reservations.increment();
+        List<Integer> last = jdbcTemplate.queryForList(RESERVE, Integer.class, count, namespaceId, prefix);
+        if (last.isEmpty()) {
+            // first use: serialize creation so concurrent callers do not insert the row twice
+            lock(namespaceId, prefix);
+            jdbcTemplate.update(CREATE, namespaceId, prefix, namespaceId, prefix);
+            last = jdbcTemplate.queryForList(RESERVE, Integer.class, count, namespaceId, prefix);
+        }
+        if (last.size() != 1) {
+            throw new IllegalStateException("Expected one number_sequence row for prefix '" + prefix
+                    + "' in namespace " + namespaceId + ", found " + last.size());
+        }
+        return last.get(0);
+    }
+
+    /**
+     * Held until the current transaction ends; taking it again in the same transaction is granted at once.
+     */
+    private void lock(UUID namespaceId, String prefix) {
+        jdbcTemplate.query(LOCK, rs -> null, namespaceId, prefix);
+    }
+
+    private record Key(UUID namespaceId, String prefix) {
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        long take() {
+            long value = next.getAndIncrement();
+            return value <= last ? value : -1;
+        }
+
+        long remaining() {
+            return Math.max(0, last - next.get() + 1);
+        }
+    }
+}
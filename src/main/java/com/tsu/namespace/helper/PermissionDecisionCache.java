@@ -0,0 +1,213 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.auth.api.Permission;
+import com.tsu.common.val.PermissionVal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compiled permission grants shared across requests.
+ * <p>
+ * Permission names are interned to bit positions once per process, so a role's or user's grant
+ * list compiles to two masks (permissions it mentions, permissions it allows) and a check is a
+ * word-wise AND. Compiled grants are cached per (namespace, role) and (namespace, user) and
+ * stamped with the namespace's permission version; NamespaceDbHelper bumps the version whenever
+ * it saves a role or user, which retires every grant of that namespace at once. Inside a
+ * transaction the version is bumped again after commit, since a grant compiled before the commit
+ * still reads the old rows. The version is process-local, so entries also expire after
+ * {@code ttl-seconds}, which bounds how long other nodes keep a revoked grant. At most
+ * {@code max-entries} grants are kept, least recently used first out.
+ */
+@Component
+public class PermissionDecisionCache {
+
+    private static final Map<String, Integer> BITS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_BIT = new AtomicInteger();
+
+    private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<GrantKey, Versioned> grants;
+    // action -> required permission mask; actions are constants so this never needs invalidation
+    private final Map<Object, long[]> required = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PermissionDecisionCache(@Value("${bx.permission.cache.max-entries:100000}") int maxEntries,
+                                   @Value("${bx.permission.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.grants = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GrantKey, Versioned> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Grants of a namespace role, compiled from {@code permissions} on a miss.
+     */
+    public Grants roleGrants(UUID namespaceId, Integer roleId, Supplier<List<PermissionVal>> permissions) {
+        return lookup(new GrantKey(namespaceId, true, roleId), permissions);
+    }
+
+    /**
+     * Grants set directly on a namespace user, without the role's.
+     */
+    public Grants userGrants(UUID namespaceId, Integer userId, Supplier<List<PermissionVal>> permissions) {
+        return lookup(new GrantKey(namespaceId, false, userId), permissions);
+    }
+
+    /**
+     * Mask of the permissions an action requires, compiled once per action.
+     */
+    public long[] requiredMask(Object action, Supplier<? extends Collection<? extends Permission>> permissions) {
+        return required.computeIfAbsent(action, k -> mask(permissions.get()));
+    }
+
+    public static long[] mask(Collection<? extends Permission> permissions) {
+        long[] mask = new long[0];
+        for (Permission permission : permissions) {
+            mask = set(mask, bit(permission.getName()));
+        }
+        return mask;
+    }
+
+    /**
+     * Retire every cached grant of the namespace; called after the role or user is written. Inside
+     * a transaction they are retired again after commit.
+     */
+    public void invalidate(UUID namespaceId) {
+        retire(namespaceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    retire(namespaceId);
+                }
+            });
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), grants.size(), BITS.size());
+    }
+
+    public record Stats(long hits, long misses, long invalidations, int size, int internedPermissions) {
+    }
+
+    private Grants lookup(GrantKey key, Supplier<List<PermissionVal>> permissions) {
+        long version = version(key.namespaceId());
+        long now = System.nanoTime();
+        Versioned cached = grants.get(key);
+        if (cached != null && cached.version() == version && now - cached.loadedAt() <= ttlNanos) {
+            hits.increment();
+            return cached.grants();
+        }
+        misses.increment();
+        Grants compiled = Grants.compile(permissions.get());
+        // an invalidation racing this compile bumps the version, so a stale entry never matches
+        grants.put(key, new Versioned(version, compiled, now));
+        return compiled;
+    }
+
+    private void retire(UUID namespaceId) {
+        versions.computeIfAbsent(namespaceId, k -> new AtomicLong()).incrementAndGet();
+        invalidations.increment();
+    }
+
+    private long version(UUID namespaceId) {
+        AtomicLong version = versions.get(namespaceId);
+        return version != null ? version.get() : 0L;
+    }
+
+    private static int bit(String name) {
+        Integer bit = BITS.get(name);
+        return bit != null ? bit : BITS.computeIfAbsent(name, k -> NEXT_BIT.getAndIncrement());
+    }
+
+    private static long[] set(long[] mask, int bit) {
+        int word = bit >>> 6;
+        long[] result = word < mask.length ? mask : Arrays.copyOf(mask, word + 1);
+        result[word] |= 1L << bit;
+        return result;
+    }
+
+    /**
+     * A compiled grant list. {@code defined} marks every permission the list mentions, {@code allow}
+     * those whose first entry allows it.
+     */
+    public record Grants(long[] defined, long[] allow) {
+
+        public static final Grants NONE = new Grants(new long[0], new long[0]);
+
+        public static Grants compile(List<PermissionVal> permissions) {
+            long[] defined = new long[0];
+            long[] allow = new long[0];
+            for (PermissionVal val : permissions) {
+                int bit = bit(val.permission());
+                int word = bit >>> 6;
+                if (word < defined.length && (defined[word] & (1L << bit)) != 0) {
+                    // first entry for a name wins, as in the list lookup
+                    continue;
+                }
+                defined = set(defined, bit);
+                if (val.isAllow()) {
+                    allow = set(allow, bit);
+                }
+            }
+            return new Grants(defined, allow);
+        }
+
+        /**
+         * These grants with {@code top}'s entries taking precedence where it defines a permission.
+         */
+        public Grants overlay(Grants top) {
+            int words = Math.max(defined.length, top.defined.length);
+            long[] mergedDefined = new long[words];
+            long[] mergedAllow = new long[words];
+            for (int i = 0; i < words; i++) {
+                long topDefined = word(top.defined, i);
+                mergedDefined[i] = word(defined, i) | topDefined;
+                mergedAllow[i] = word(top.allow, i) | (word(allow, i) & ~topDefined);
+            }
+            return new Grants(mergedDefined, mergedAllow);
+        }
+
+        public boolean allows(long[] required) {
+            for (int i = 0; i < required.length; i++) {
+                if ((word(allow, i) & required[i]) != required[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long word(long[] mask, int index) {
+            return index < mask.length ? mask[index] : 0L;
+        }
+    }
+
+    private record GrantKey(UUID namespaceId, boolean role, Integer id) {
+    }
+
+    private record Versioned(long version, Grants grants, long loadedAt) {
+    }
+}
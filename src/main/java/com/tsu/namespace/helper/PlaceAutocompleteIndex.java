@@ -0,0 +1,285 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.common.jpa.JsonValueUtils;
+import com.tsu.namespace.entities.PlaceTb;
+import com.tsu.namespace.helper.support.PlaceNameIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Optional in-memory autocomplete over place names and alternate names, one
+ * {@link PlaceNameIndex} per namespace.
+ * <p>
+ * A namespace is loaded on first lookup with one scan of place and one of place_alt_name.
+ * Namespaces with more than {@code max-places} places are not indexed and lookups return empty,
+ * leaving the caller to query the database. Writes made through PlaceDbHelperEnhanced are applied
+ * after commit; entries expire after {@code ttl-seconds}, which bounds staleness across nodes, and
+ * at most {@code max-namespaces} are kept, least recently used first out.
+ * <p>
+ * Places rank by the weight of their type ({@code type-weights}, "type:weight" pairs, 0 when not
+ * listed) plus log10 of the {@code population} prop, so a large city outranks a street of the same
+ * name. Disabled by default; enable with {@code bx.place.autocomplete.enabled=true}.
+ */
+@Slf4j
+@Component
+public class PlaceAutocompleteIndex {
+
+    private static final String LOAD_PLACES = """
+            SELECT id, name, type, active, props->>'population' AS population
+            FROM place
+            WHERE namespace_id = ?
+            LIMIT ?
+            """;
+
+    private static final String LOAD_ALT_NAMES = """
+            SELECT id, place_id, name, lang
+            FROM place_alt_name
+            WHERE namespace_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxPlaces;
+    private final long ttlNanos;
+    private final Map<String, Double> typeWeights;
+    private final Map<UUID, Entry> entries;
+    // bumped on every write so a load racing with a write does not install stale data
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    public PlaceAutocompleteIndex(DataSource dataSource,
+                                  @Value("${bx.place.autocomplete.enabled:false}") boolean enabled,
+                                  @Value("${bx.place.autocomplete.max-places:200000}") int maxPlaces,
+                                  @Value("${bx.place.autocomplete.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${bx.place.autocomplete.max-namespaces:100}") int maxNamespaces,
+                                  @Value("${bx.place.autocomplete.type-weights:country:6,region:5,city:4,neighborhood:3,campus:2,building:2,poi:1}") List<String> typeWeights) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+        this.maxPlaces = maxPlaces;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.typeWeights = parseWeights(typeWeights);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxNamespaces;
+            }
+        });
+        log.info("Place autocomplete index {} (maxPlaces={}, typeWeights={})", enabled ? "enabled" : "disabled", maxPlaces, this.typeWeights);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Top {@code limit} completions of {@code prefix}; empty when the namespace is not indexed.
+     */
+    public Optional<List<PlaceNameIndex.Suggestion>> complete(UUID namespaceId, String prefix, String lang, int limit) {
+        PlaceNameIndex index = enabled ? index(namespaceId) : null;
+        if (index == null) {
+            fallbacks.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(index.complete(prefix, lang, limit));
+    }
+
+    /**
+     * A place was created or updated in the current transaction; it is reindexed after commit.
+     */
+    public void placeChanged(UUID namespaceId, PlaceTb tb) {
+        if (!enabled) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        UUID placeId = tb.getId().getId();
+        String name = tb.getName();
+        String type = tb.getType();
+        long population = population(tb);
+        boolean active = tb.isActive();
+        afterCommit(() -> apply(namespaceId, index -> index.putPlace(placeId, name, type, population, active)));
+    }
+
+    /**
+     * Places deleted in the current transaction, a deleted place together with its subtree; their
+     * alternate names go with them.
+     */
+    public void placesRemoved(UUID namespaceId, Collection<UUID> placeIds) {
+        if (!enabled || placeIds.isEmpty()) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        afterCommit(() -> apply(namespaceId, index -> placeIds.forEach(index::removePlace)));
+    }
+
+    public void altNameAdded(UUID namespaceId, UUID placeId, long altNameId, String name, String lang) {
+        if (!enabled) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        afterCommit(() -> apply(namespaceId, index -> index.putAltName(placeId, altNameId, name, lang)));
+    }
+
+    public void altNameRemoved(UUID namespaceId, long altNameId) {
+        if (!enabled) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        afterCommit(() -> apply(namespaceId, index -> index.removeAltName(altNameId)));
+    }
+
+    public Stats getStats() {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        long places = 0;
+        int oversized = 0;
+        for (Entry entry : snapshot) {
+            if (entry.index() != null) {
+                places += entry.index().size();
+            } else {
+                oversized++;
+            }
+        }
+        return new Stats(hits.sum(), fallbacks.sum(), loads.sum(), writes.sum(), snapshot.size(), oversized, places);
+    }
+
+    /**
+     * {@code fallbacks} are lookups left to the database; {@code oversized} namespaces above
+     * {@code max-places}, which are not indexed.
+     */
+    public record Stats(long hits, long fallbacks, long loads, long writes, int namespaces, int oversized, long places) {
+    }
+
+    private PlaceNameIndex index(UUID namespaceId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(namespaceId);
+        if (entry != null && now - entry.loadedAt() <= ttlNanos) {
+            return entry.index();
+        }
+        long sequence = writeSequence.get();
+        Entry loaded = new Entry(load(namespaceId), now);
+        synchronized (entries) {
+            if (writeSequence.get() == sequence) {
+                entries.put(namespaceId, loaded);
+            }
+        }
+        return loaded.index();
+    }
+
+    private PlaceNameIndex load(UUID namespaceId) {
+        loads.increment();
+        PlaceNameIndex index = new PlaceNameIndex(this::score);
+        jdbcTemplate.query(LOAD_PLACES, rs -> {
+            index.putPlace(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("type"),
+                    parsePopulation(rs.getString("population")), rs.getBoolean("active"));
+        }, namespaceId, maxPlaces + 1);
+        if (index.size() > maxPlaces) {
+            log.info("Namespace {} has more than {} places, autocomplete stays on the database", namespaceId, maxPlaces);
+            return null;
+        }
+        jdbcTemplate.query(LOAD_ALT_NAMES, rs -> {
+            index.putAltName(rs.getObject("place_id", UUID.class), rs.getLong("id"), rs.getString("name"), rs.getString("lang"));
+        }, namespaceId);
+        log.debug("Indexed {} place names of namespace {}", index.size(), namespaceId);
+        return index;
+    }
+
+    private void apply(UUID namespaceId, Consumer<PlaceNameIndex> write) {
+        writeSequence.incrementAndGet();
+        writes.increment();
+        synchronized (entries) {
+            Entry entry = entries.get(namespaceId);
+            if (entry == null || entry.index() == null) {
+                return;
+            }
+            write.accept(entry.index());
+            if (entry.index().size() > maxPlaces) {
+                entries.put(namespaceId, new Entry(null, entry.loadedAt()));
+            }
+        }
+    }
+
+    private double score(PlaceNameIndex.PlaceNames place) {
+        double weight = place.type() != null ? typeWeights.getOrDefault(place.type(), 0.0) : 0.0;
+        return weight + Math.log10(1 + Math.max(0, place.population()));
+    }
+
+    private static long population(PlaceTb tb) {
+        if (tb.getProps() == null) {
+            return 0;
+        }
+        Map<?, ?> props = JsonValueUtils.getInstance().decode(tb.getProps().toString(), Map.class);
+        Object population = props != null ? props.get("population") : null;
+        if (population instanceof Number number) {
+            return number.longValue();
+        }
+        return population != null ? parsePopulation(population.toString()) : 0;
+    }
+
+    private static long parsePopulation(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return (long) Double.parseDouble(value.strip());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Map<String, Double> parseWeights(List<String> pairs) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String pair : pairs) {
+            int colon = pair.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("bx.place.autocomplete.type-weights expects type:weight pairs: " + pair);
+            }
+            weights.put(pair.substring(0, colon).strip(), Double.parseDouble(pair.substring(colon + 1).strip()));
+        }
+        return Map.copyOf(weights);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Name index of a namespace, null when it has too many places to index.
+     */
+    private record Entry(PlaceNameIndex index, long loadedAt) {
+    }
+}
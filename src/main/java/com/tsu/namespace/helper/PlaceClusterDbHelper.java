@@ -0,0 +1,101 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.auth.security.AppSecurityContext;
+import com.tsu.namespace.record.PlaceRecordEnhanced;
+import com.tsu.place.val.PlaceVal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Map view aggregation of places: the viewport is cut into square cells sized for the zoom level
+ * and each cell comes back as one centroid with its place count, computed in the database.
+ * <p>
+ * A zoom level {@code z} spans {@code 2^z} tiles around the globe and each tile is cut into
+ * {@code cells-per-tile} columns, so clusters keep the same on-screen density while zooming. Once
+ * the viewport holds no more than {@code max-points} places, the places themselves are returned
+ * instead of clusters.
+ */
+@Slf4j
+@Component
+public class PlaceClusterDbHelper {
+
+    private static final int MAX_ZOOM = 24;
+
+    // the geography && uses the center GiST index; the outer filter is the exact lat/lng box
+    private static final String CLUSTER = """
+            SELECT COUNT(*) AS places, AVG(p.lat) AS lat, AVG(p.lng) AS lng, MIN(CAST(p.id AS text)) AS place_id
+            FROM (SELECT id, ST_Y(center::geometry) AS lat, ST_X(center::geometry) AS lng
+                  FROM place
+                  WHERE namespace_id = ? AND active = true AND center IS NOT NULL
+                    AND center && CAST(ST_MakeEnvelope(?, ?, ?, ?, 4326) AS geography)
+                    AND (CAST(? AS text) IS NULL OR type = ?)) p
+            WHERE p.lat BETWEEN ? AND ? AND p.lng BETWEEN ? AND ?
+            GROUP BY floor((p.lng + 180) / ?), floor((p.lat + 90) / ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlaceDbHelperEnhanced placeDbHelper;
+    private final int cellsPerTile;
+    private final int maxPoints;
+
+    public PlaceClusterDbHelper(DataSource dataSource,
+                                PlaceDbHelperEnhanced placeDbHelper,
+                                @Value("${bx.place.cluster.cells-per-tile:8}") int cellsPerTile,
+                                @Value("${bx.place.cluster.max-points:500}") int maxPoints) {
+        if (cellsPerTile < 1) {
+            throw new IllegalArgumentException("bx.place.cluster.cells-per-tile must be positive: " + cellsPerTile);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.placeDbHelper = placeDbHelper;
+        this.cellsPerTile = cellsPerTile;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Active places of the namespace inside the box at {@code zoom}, optionally of one type only:
+     * clusters when there are more than {@code max-points} of them, otherwise the places.
+     */
+    public PlaceClusters clusterPlaces(UUID namespaceId, double minLat, double maxLat, double minLng, double maxLng,
+                                       int zoom, String type, AppSecurityContext context) {
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Invalid bounding box coordinates");
+        }
+        int z = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        double cellDegrees = 360.0 / ((1L << z) * cellsPerTile);
+        List<PlaceCluster> clusters = jdbcTemplate.query(CLUSTER, (rs, i) -> {
+                    long places = rs.getLong("places");
+                    UUID placeId = places == 1 ? UUID.fromString(rs.getString("place_id")) : null;
+                    return new PlaceCluster(rs.getDouble("lat"), rs.getDouble("lng"), places, placeId);
+                },
+                namespaceId, minLng, minLat, maxLng, maxLat, type, type,
+                minLat, maxLat, minLng, maxLng, cellDegrees, cellDegrees);
+        long total = clusters.stream().mapToLong(PlaceCluster::count).sum();
+        log.debug("Clustered {} places into {} cells of {} degrees at zoom {}", total, clusters.size(), cellDegrees, z);
+        if (total > maxPoints) {
+            return new PlaceClusters(z, cellDegrees, total, clusters, List.of());
+        }
+        List<PlaceVal> places = placeDbHelper.findPlacesWithinBbox(namespaceId, minLat, maxLat, minLng, maxLng, type, context)
+                .stream()
+                .map(PlaceRecordEnhanced::getValue)
+                .toList();
+        return new PlaceClusters(z, cellDegrees, places.size(), List.of(), places);
+    }
+
+    /**
+     * Clusters or places of a viewport; at most one of the two lists is non-empty.
+     */
+    public record PlaceClusters(int zoom, double cellDegrees, long total, List<PlaceCluster> clusters, List<PlaceVal> places) {
+    }
+
+    /**
+     * Centroid of the places in one cell; {@code placeId} is set when the cell holds a single place.
+     */
+    public record PlaceCluster(double lat, double lng, long count, UUID placeId) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.tsu.namespace.helper;
 
 import com.tsu.namespace.entities.PlaceTb;
+import com.tsu.namespace.entities.id.PlaceId;
 import com.tsu.namespace.record.PlaceRecord;
 import com.tsu.namespace.repo.PlaceRepository;
 import com.tsu.common.jpa.JsonValueUtils;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Component
@@ -24,17 +26,37 @@ public class PlaceDbHelper {
     private static final int SRID = 4326; // WGS84
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), SRID);
     private final PlaceRepository placeRepository;
+    private final PlaceSpatialIndex spatialIndex;
+    private final PlaceTileCache tileCache;
+    private final PlaceAutocompleteIndex autocompleteIndex;
 
     public Optional<PlaceRecord> findPlaceById(Integer id, AppSecurityContext context) {
         return placeRepository.findById(id)
                 .map(tb -> build(tb, context));
     }
 
+    /**
+     * Legacy entry point without a namespace. The place is not keyed to one, so the in-memory place
+     * indexes (PlaceSpatialIndex, PlaceTileCache, PlaceAutocompleteIndex) are not told about it and
+     * only see it once their entries expire.
+     */
     public PlaceRecord addPlace(String country, String county, String city, String building, String address, String postCode,
                            double lat, double lng, String notes, Object props, AppSecurityContext context) {
+        return addPlace(null, country, county, city, building, address, postCode, lat, lng, notes, props, context);
+    }
+
+    /**
+     * Add a place to the namespace; the in-memory place indexes pick it up after commit, as with
+     * PlaceDbHelperEnhanced.createPlace.
+     */
+    public PlaceRecord addPlace(UUID namespaceId, String country, String county, String city, String building, String address,
+                                String postCode, double lat, double lng, String notes, Object props, AppSecurityContext context) {
         log.debug("Adding new place: country={}, city={}, lat={}, lng={}", country, city, lat, lng);
 
         PlaceTb tb = new PlaceTb();
+        if (namespaceId != null) {
+            tb.setId(new PlaceId(namespaceId, UUID.randomUUID()));
+        }
         tb.setCountry(validateCountryCode(country));
         tb.setCounty(county);
         tb.setCity(city);
@@ -55,6 +77,11 @@ public class PlaceDbHelper {
 
 
         placeRepository.save(tb);
+        if (namespaceId != null) {
+            spatialIndex.placeChanged(namespaceId, tb.getId().getId(), tb.getLat(), tb.getLng(), tb.isActive());
+            tileCache.placesChanged(namespaceId);
+            autocompleteIndex.placeChanged(namespaceId, tb);
+        }
         log.info("Place created with id: {}", tb.getId());
 
         return build(tb, context);
@@ -5,9 +5,11 @@ import com.tsu.common.jpa.JsonValueUtils;
 import com.tsu.namespace.entities.PlaceAltNameTb;
 import com.tsu.namespace.entities.PlaceTb;
 import com.tsu.namespace.entities.id.PlaceId;
+import com.tsu.namespace.helper.support.PlaceNameIndex;
 import com.tsu.namespace.record.PlaceAltNameRecord;
 import com.tsu.namespace.record.PlaceRecordEnhanced;
 import com.tsu.namespace.repo.PlaceAltNameRepository;
+import com.tsu.namespace.repo.PlaceClosureRepository;
 import com.tsu.namespace.repo.PlaceRepositoryEnhanced;
 import com.tsu.namespace.repo.spec.PlaceSpecification;
 import com.tsu.place.request.PlaceFilter;
@@ -18,12 +20,16 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,10 +42,17 @@ import java.util.UUID;
 public class PlaceDbHelperEnhanced {
 
     private static final int SRID = 4326; // WGS84
+    private static final int MAX_TILE_ZOOM = 24;
+    private static final int TILE_EXTENT = 4096;
+    private static final int TILE_BUFFER = 64;
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), SRID);
 
     private final PlaceRepositoryEnhanced placeRepository;
     private final PlaceAltNameRepository altNameRepository;
+    private final PlaceClosureRepository closureRepository;
+    private final PlaceSpatialIndex spatialIndex;
+    private final PlaceTileCache tileCache;
+    private final PlaceAutocompleteIndex autocompleteIndex;
 
     // ========== CRUD Operations ==========
 
@@ -82,6 +95,9 @@ public class PlaceDbHelperEnhanced {
         tb.setModifiedDate(LocalDateTime.now());
 
         placeRepository.save(tb);
+        spatialIndex.placeChanged(namespaceId, id.getId(), tb.getLat(), tb.getLng(), tb.isActive());
+        tileCache.placesChanged(namespaceId);
+        autocompleteIndex.placeChanged(namespaceId, tb);
         log.info("Place created with id: {}", id.getId());
 
         return build(tb, context);
@@ -115,6 +131,9 @@ public class PlaceDbHelperEnhanced {
         tb.setModifiedDate(LocalDateTime.now());
 
         placeRepository.save(tb);
+        spatialIndex.placeChanged(namespaceId, placeId, tb.getLat(), tb.getLng(), tb.isActive());
+        tileCache.placesChanged(namespaceId);
+        autocompleteIndex.placeChanged(namespaceId, tb);
         log.info("Place updated: {}", placeId);
 
         return build(tb, context);
@@ -136,15 +155,30 @@ public class PlaceDbHelperEnhanced {
         tb.setModifiedDate(LocalDateTime.now());
 
         placeRepository.save(tb);
+        spatialIndex.placeChanged(namespaceId, placeId, tb.getLat(), tb.getLng(), active);
+        tileCache.placesChanged(namespaceId);
+        autocompleteIndex.placeChanged(namespaceId, tb);
         log.info("Place {} {}", placeId, active ? "activated" : "deactivated");
 
         return build(tb, context);
     }
 
+    /**
+     * Delete a place; its subtree and their alternate names go with it through the foreign keys, so
+     * the in-memory indexes drop every place of the subtree, read from the closure table first.
+     */
     public void deletePlace(UUID namespaceId, UUID placeId) {
         PlaceId id = new PlaceId(namespaceId, placeId);
+        List<UUID> subtree = closureRepository.findSubtreeIds(namespaceId, placeId);
+        if (subtree.isEmpty()) {
+            // no closure rows yet (not backfilled): at least drop the place itself
+            subtree = List.of(placeId);
+        }
         placeRepository.deleteById(id);
-        log.info("Place deleted: {}", placeId);
+        spatialIndex.placesRemoved(namespaceId, subtree);
+        tileCache.placesChanged(namespaceId);
+        autocompleteIndex.placesRemoved(namespaceId, subtree);
+        log.info("Place deleted: {} with {} places below it", placeId, Math.max(0, subtree.size() - 1));
     }
 
     // ========== Search Operations ==========
@@ -160,6 +194,22 @@ public class PlaceDbHelperEnhanced {
                 .map(tb -> build(tb, context));
     }
 
+    /**
+     * Type-ahead suggestions for {@code prefix}, matched against names and alternate names in
+     * {@code lang} (any language when null), best ranked first. Served from the in-memory index
+     * when the namespace is indexed, otherwise from a name prefix query.
+     */
+    public List<PlaceNameIndex.Suggestion> autocomplete(UUID namespaceId, String prefix, String lang, int limit) {
+        if (prefix == null || prefix.isBlank() || limit < 1) {
+            return List.of();
+        }
+        return autocompleteIndex.complete(namespaceId, prefix, lang, limit)
+                .orElseGet(() -> placeRepository.searchByNamePrefix(namespaceId, prefix.strip(), PageRequest.of(0, limit))
+                        .stream()
+                        .map(tb -> new PlaceNameIndex.Suggestion(tb.getId().getId(), tb.getName(), tb.getName(), null, tb.getType()))
+                        .toList());
+    }
+
     public List<PlaceRecordEnhanced> searchByNameFuzzy(UUID namespaceId, String query, int limit, AppSecurityContext context) {
         return placeRepository.searchByNameFuzzy(namespaceId, query, limit)
                 .stream()
@@ -191,6 +241,10 @@ public class PlaceDbHelperEnhanced {
     public List<PlaceRecordEnhanced> findPlacesWithinRadius(UUID namespaceId, double lat, double lng,
                                                             double radiusMeters, AppSecurityContext context) {
         log.debug("Finding places within {} meters of ({}, {})", radiusMeters, lat, lng);
+        Optional<List<UUID>> indexed = spatialIndex.findWithinRadius(namespaceId, lat, lng, radiusMeters);
+        if (indexed.isPresent()) {
+            return findIndexedPlaces(namespaceId, indexed.get(), context);
+        }
         return placeRepository.findPlacesWithinRadius(namespaceId, lat, lng, radiusMeters)
                 .stream()
                 .map(tb -> build(tb, context))
@@ -200,6 +254,10 @@ public class PlaceDbHelperEnhanced {
     public List<PlaceRecordEnhanced> findNearestPlaces(UUID namespaceId, double lat, double lng,
                                                        int limit, AppSecurityContext context) {
         log.debug("Finding {} nearest places to ({}, {})", limit, lat, lng);
+        Optional<List<UUID>> indexed = spatialIndex.findNearest(namespaceId, lat, lng, limit);
+        if (indexed.isPresent()) {
+            return findIndexedPlaces(namespaceId, indexed.get(), context);
+        }
         return placeRepository.findNearestPlaces(namespaceId, lat, lng, limit)
                 .stream()
                 .map(tb -> build(tb, context))
@@ -209,12 +267,33 @@ public class PlaceDbHelperEnhanced {
     public List<PlaceRecordEnhanced> findPlacesWithinBbox(UUID namespaceId, double minLat, double maxLat,
                                                           double minLng, double maxLng, AppSecurityContext context) {
         log.debug("Finding places within bbox: ({}, {}) to ({}, {})", minLat, minLng, maxLat, maxLng);
+        Optional<List<UUID>> indexed = spatialIndex.findWithinBbox(namespaceId, minLat, maxLat, minLng, maxLng);
+        if (indexed.isPresent()) {
+            return findIndexedPlaces(namespaceId, indexed.get(), context);
+        }
         return placeRepository.findPlacesWithinBbox(namespaceId, minLat, maxLat, minLng, maxLng)
                 .stream()
                 .map(tb -> build(tb, context))
                 .toList();
     }
 
+    /**
+     * Places of one type within the box, {@code type} null for all types. The spatial index does not
+     * know types, so a typed lookup always filters in the database.
+     */
+    public List<PlaceRecordEnhanced> findPlacesWithinBbox(UUID namespaceId, double minLat, double maxLat,
+                                                          double minLng, double maxLng, String type,
+                                                          AppSecurityContext context) {
+        if (type == null) {
+            return findPlacesWithinBbox(namespaceId, minLat, maxLat, minLng, maxLng, context);
+        }
+        log.debug("Finding places of type {} within bbox: ({}, {}) to ({}, {})", type, minLat, minLng, maxLat, maxLng);
+        return placeRepository.findPlacesWithinBboxByType(namespaceId, type, minLat, maxLat, minLng, maxLng)
+                .stream()
+                .map(tb -> build(tb, context))
+                .toList();
+    }
+
     public List<PlaceRecordEnhanced> reverseGeocode(UUID namespaceId, double lat, double lng,
                                                     int maxResults, AppSecurityContext context) {
         log.debug("Reverse geocoding point ({}, {})", lat, lng);
@@ -229,6 +308,25 @@ public class PlaceDbHelperEnhanced {
         return Optional.ofNullable(placeRepository.calculateDistance(namespaceId, placeId1, placeId2));
     }
 
+    /**
+     * Mapbox Vector Tile z/x/y of the namespace's places, with a "place" point layer from the
+     * centers and a "place_area" polygon layer from the bounding boxes. Null {@code type} or
+     * {@code active} does not filter on it. Tiles are cached until a place of the namespace is written.
+     */
+    public byte[] findPlaceTile(UUID namespaceId, int z, int x, int y, String type, Boolean active) {
+        if (z < 0 || z > MAX_TILE_ZOOM) {
+            throw new IllegalArgumentException("Tile zoom must be between 0 and " + MAX_TILE_ZOOM);
+        }
+        int tiles = 1 << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " does not exist");
+        }
+        return tileCache.get(namespaceId, z, x, y, type, active, () -> {
+            log.debug("Rendering place tile {}/{}/{} for namespace {}", z, x, y, namespaceId);
+            return placeRepository.findPlaceTile(namespaceId, z, x, y, type, active, TILE_EXTENT, TILE_BUFFER);
+        });
+    }
+
     // ========== Hierarchy Queries ==========
 
     public Page<PlaceRecordEnhanced> findChildren(UUID namespaceId, UUID parentId,
@@ -251,6 +349,49 @@ public class PlaceDbHelperEnhanced {
                 .toList();
     }
 
+    /**
+     * Number of places below each of {@code placeIds}, at any depth; places without any map to 0.
+     */
+    public Map<UUID, Long> countDescendants(UUID namespaceId, Collection<UUID> placeIds, boolean activeOnly) {
+        Map<UUID, Long> counts = new HashMap<>();
+        if (placeIds.isEmpty()) {
+            return counts;
+        }
+        placeIds.forEach(id -> counts.put(id, 0L));
+        closureRepository.countDescendants(namespaceId, placeIds, activeOnly)
+                .forEach(count -> counts.put(count.getPlaceId(), count.getDescendants()));
+        return counts;
+    }
+
+    /**
+     * Move a place, with its subtree, under {@code parentId}; null makes it a root place. The
+     * closure rows are rewritten by the place trigger, which also repeats the cycle check under a
+     * per-namespace advisory lock, so concurrent moves cannot build a cycle between the check here
+     * and the update.
+     */
+    public PlaceRecordEnhanced movePlace(UUID namespaceId, UUID placeId, UUID parentId, AppSecurityContext context) {
+        PlaceId id = new PlaceId(namespaceId, placeId);
+        PlaceTb tb = placeRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Place not found: " + placeId));
+        if (parentId != null) {
+            if (!placeRepository.existsById(new PlaceId(namespaceId, parentId))) {
+                throw new IllegalArgumentException("Parent place not found: " + parentId);
+            }
+            if (closureRepository.existsByNamespaceIdAndAncestorIdAndDescendantId(namespaceId, placeId, parentId)) {
+                throw new IllegalArgumentException("Place " + placeId + " cannot be moved under itself or its descendant " + parentId);
+            }
+        }
+
+        tb.setParentId(parentId);
+        tb.setModifiedBy(context.getPrincipal().id());
+        tb.setModifiedDate(LocalDateTime.now());
+
+        placeRepository.save(tb);
+        log.info("Place {} moved under {}", placeId, parentId);
+
+        return build(tb, context);
+    }
+
     public Page<PlaceRecordEnhanced> findRootPlaces(UUID namespaceId, Pageable pageable, AppSecurityContext context) {
         return placeRepository.findByNamespaceIdAndParentIdIsNull(namespaceId, pageable)
                 .map(tb -> build(tb, context));
@@ -270,6 +411,7 @@ public class PlaceDbHelperEnhanced {
         tb.setCreatedDate(LocalDateTime.now());
 
         altNameRepository.save(tb);
+        autocompleteIndex.altNameAdded(namespaceId, placeId, tb.getId(), name, lang);
         log.info("Alternate name added for place {}: {} ({})", placeId, name, lang);
     }
 
@@ -290,6 +432,7 @@ public class PlaceDbHelperEnhanced {
 
     public void deleteAlternateName(UUID namespaceId, Long altNameId) {
         altNameRepository.deleteById(new com.tsu.namespace.entities.id.PlaceAltNameId(namespaceId, altNameId));
+        autocompleteIndex.altNameRemoved(namespaceId, altNameId);
         log.info("Alternate name deleted: {}", altNameId);
     }
 
@@ -320,6 +463,24 @@ public class PlaceDbHelperEnhanced {
         return point;
     }
 
+    /**
+     * Load the places found by the spatial index by primary key, in the index's order. Rows
+     * deactivated or deleted since the index saw them are dropped.
+     */
+    private List<PlaceRecordEnhanced> findIndexedPlaces(UUID namespaceId, List<UUID> placeIds, AppSecurityContext context) {
+        if (placeIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, PlaceTb> rows = new HashMap<>();
+        placeRepository.findAllById(placeIds.stream().map(id -> new PlaceId(namespaceId, id)).toList())
+                .forEach(tb -> rows.put(tb.getId().getId(), tb));
+        return placeIds.stream()
+                .map(rows::get)
+                .filter(tb -> tb != null && tb.isActive() && tb.getCenter() != null)
+                .map(tb -> build(tb, context))
+                .toList();
+    }
+
     private PlaceRecordEnhanced build(PlaceTb tb, AppSecurityContext context) {
         return new PlaceRecordEnhanced(tb, context);
     }
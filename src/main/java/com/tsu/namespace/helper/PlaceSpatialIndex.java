@@ -0,0 +1,241 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.helper.support.GeoGrid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Optional in-memory index of the active, located places of each namespace, for the radius, box
+ * and nearest queries of {@link PlaceDbHelperEnhanced}.
+ * <p>
+ * A namespace is loaded on first query with one scan of its place centres into a {@link GeoGrid}.
+ * Namespaces with more than {@code max-places} such places are not indexed: lookups return empty
+ * and the caller queries PostGIS, until the decision expires with the namespace's entry. Writes
+ * made through PlaceDbHelperEnhanced are applied after commit; entries expire after
+ * {@code ttl-seconds}, which bounds staleness across nodes, and at most {@code max-namespaces} are
+ * kept, least recently used first out. Lookups return place ids only, the caller loads the rows.
+ * <p>
+ * Disabled by default; enable with {@code bx.place.spatial-index.enabled=true}.
+ */
+@Slf4j
+@Component
+public class PlaceSpatialIndex {
+
+    private static final String LOAD = """
+            SELECT id, ST_Y(center::geometry) AS lat, ST_X(center::geometry) AS lng
+            FROM place
+            WHERE namespace_id = ? AND active = true AND center IS NOT NULL
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxPlaces;
+    private final double cellDegrees;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries;
+    // bumped on every write so a load racing with a write does not install stale data
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    public PlaceSpatialIndex(DataSource dataSource,
+                             @Value("${bx.place.spatial-index.enabled:false}") boolean enabled,
+                             @Value("${bx.place.spatial-index.max-places:50000}") int maxPlaces,
+                             @Value("${bx.place.spatial-index.cell-degrees:0.05}") double cellDegrees,
+                             @Value("${bx.place.spatial-index.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${bx.place.spatial-index.max-namespaces:100}") int maxNamespaces) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+        this.maxPlaces = maxPlaces;
+        this.cellDegrees = cellDegrees;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxNamespaces;
+            }
+        });
+        log.info("Place spatial index {} (maxPlaces={}, cellDegrees={})", enabled ? "enabled" : "disabled", maxPlaces, cellDegrees);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ids of the places within {@code radiusMeters} of (lat, lng), nearest first; empty when the
+     * namespace is not indexed.
+     */
+    public Optional<List<UUID>> findWithinRadius(UUID namespaceId, double lat, double lng, double radiusMeters) {
+        return query(namespaceId, grid -> grid.within(lat, lng, radiusMeters));
+    }
+
+    /**
+     * Ids of the {@code limit} places nearest to (lat, lng), nearest first; empty when the
+     * namespace is not indexed.
+     */
+    public Optional<List<UUID>> findNearest(UUID namespaceId, double lat, double lng, int limit) {
+        return query(namespaceId, grid -> grid.nearest(lat, lng, limit));
+    }
+
+    /**
+     * Ids of the places inside the box; empty when the namespace is not indexed.
+     */
+    public Optional<List<UUID>> findWithinBbox(UUID namespaceId, double minLat, double maxLat, double minLng, double maxLng) {
+        return query(namespaceId, grid -> grid.withinBox(minLat, maxLat, minLng, maxLng));
+    }
+
+    /**
+     * A place was created or updated in the current transaction; it is indexed after commit when it
+     * is active and located, and removed otherwise.
+     */
+    public void placeChanged(UUID namespaceId, UUID placeId, Double lat, Double lng, boolean active) {
+        if (!enabled) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        boolean indexed = active && lat != null && lng != null;
+        afterCommit(() -> apply(namespaceId, grid -> {
+            if (indexed) {
+                grid.put(placeId, lat, lng);
+            } else {
+                grid.remove(placeId);
+            }
+        }));
+    }
+
+    /**
+     * Places deleted in the current transaction, a deleted place together with its subtree.
+     */
+    public void placesRemoved(UUID namespaceId, Collection<UUID> placeIds) {
+        if (!enabled || placeIds.isEmpty()) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        afterCommit(() -> apply(namespaceId, grid -> placeIds.forEach(grid::remove)));
+    }
+
+    public Stats getStats() {
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        long places = 0;
+        int oversized = 0;
+        for (Entry entry : snapshot) {
+            if (entry.grid() != null) {
+                places += entry.grid().size();
+            } else {
+                oversized++;
+            }
+        }
+        return new Stats(hits.sum(), fallbacks.sum(), loads.sum(), writes.sum(), snapshot.size(), oversized, places);
+    }
+
+    /**
+     * {@code fallbacks} are lookups left to PostGIS; {@code oversized} namespaces above
+     * {@code max-places}, which are not indexed.
+     */
+    public record Stats(long hits, long fallbacks, long loads, long writes, int namespaces, int oversized, long places) {
+    }
+
+    private Optional<List<UUID>> query(UUID namespaceId, Function<GeoGrid, List<GeoGrid.Hit>> lookup) {
+        GeoGrid grid = enabled ? grid(namespaceId) : null;
+        if (grid == null) {
+            fallbacks.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(lookup.apply(grid).stream().map(GeoGrid.Hit::id).toList());
+    }
+
+    /**
+     * The namespace's grid, loaded if absent or expired; null when the namespace is too large.
+     */
+    private GeoGrid grid(UUID namespaceId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(namespaceId);
+        if (entry != null && now - entry.loadedAt() <= ttlNanos) {
+            return entry.grid();
+        }
+        long sequence = writeSequence.get();
+        Entry loaded = new Entry(load(namespaceId), now);
+        synchronized (entries) {
+            if (writeSequence.get() == sequence) {
+                entries.put(namespaceId, loaded);
+            }
+        }
+        return loaded.grid();
+    }
+
+    private GeoGrid load(UUID namespaceId) {
+        loads.increment();
+        GeoGrid grid = new GeoGrid(cellDegrees);
+        jdbcTemplate.query(LOAD, rs -> {
+            grid.put(rs.getObject("id", UUID.class), rs.getDouble("lat"), rs.getDouble("lng"));
+        }, namespaceId, maxPlaces + 1);
+        if (grid.size() > maxPlaces) {
+            log.info("Namespace {} has more than {} located places, spatial queries stay on PostGIS", namespaceId, maxPlaces);
+            return null;
+        }
+        log.debug("Indexed {} places of namespace {}", grid.size(), namespaceId);
+        return grid;
+    }
+
+    private void apply(UUID namespaceId, Consumer<GeoGrid> write) {
+        writeSequence.incrementAndGet();
+        writes.increment();
+        synchronized (entries) {
+            Entry entry = entries.get(namespaceId);
+            if (entry == null || entry.grid() == null) {
+                return;
+            }
+            write.accept(entry.grid());
+            if (entry.grid().size() > maxPlaces) {
+                entries.put(namespaceId, new Entry(null, entry.loadedAt()));
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Grid of a namespace, null when it has too many places to index.
+     */
+    private record Entry(GeoGrid grid, long loadedAt) {
+    }
+}
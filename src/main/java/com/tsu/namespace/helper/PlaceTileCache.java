@@ -0,0 +1,125 @@
+package com.tsu.namespace.helper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Encoded vector tiles of place layers, keyed by (namespace, z, x, y, filter, data version).
+ * <p>
+ * PlaceDbHelperEnhanced bumps a namespace's data version after each place write commits, which
+ * retires every cached tile of that namespace at once; a tile rendered while a write was in flight
+ * is stored under the version it started with and is never served after the bump. Retired tiles
+ * leave through LRU eviction, bounded by {@code max-bytes} of tile data. The version is
+ * process-local, so tiles also expire after {@code ttl-seconds} to bound staleness across nodes.
+ */
+@Component
+public class PlaceTileCache {
+
+    // versions come from one counter, so a version is never reused by another state of the data
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersion = new AtomicLong();
+    private final Map<TileKey, Tile> tiles;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PlaceTileCache(@Value("${bx.place.tile-cache.max-bytes:67108864}") long maxBytes,
+                          @Value("${bx.place.tile-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.tiles = new LinkedHashMap<>(256, 0.75f, true);
+    }
+
+    /**
+     * The cached tile, or the one {@code render} produces, which is then cached. The array is
+     * shared with later callers and must not be modified.
+     */
+    public byte[] get(UUID namespaceId, int z, int x, int y, String type, Boolean active, Supplier<byte[]> render) {
+        TileKey key = new TileKey(namespaceId, z, x, y, type, active, version(namespaceId));
+        long now = System.nanoTime();
+        synchronized (tiles) {
+            Tile tile = tiles.get(key);
+            if (tile != null && now - tile.renderedAt() <= ttlNanos) {
+                hits.increment();
+                return tile.data();
+            }
+        }
+        misses.increment();
+        byte[] data = render.get();
+        if (data == null) {
+            data = new byte[0];
+        }
+        if (data.length <= maxBytes) {
+            put(key, new Tile(data, now));
+        }
+        return data;
+    }
+
+    /**
+     * A place of the namespace was written in the current transaction; its tiles are retired
+     * after commit.
+     */
+    public void placesChanged(UUID namespaceId) {
+        afterCommit(() -> versions.put(namespaceId, nextVersion.incrementAndGet()));
+    }
+
+    public Stats getStats() {
+        synchronized (tiles) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), tiles.size(), bytes);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int tiles, long bytes) {
+    }
+
+    private long version(UUID namespaceId) {
+        return versions.computeIfAbsent(namespaceId, k -> nextVersion.incrementAndGet());
+    }
+
+    private void put(TileKey key, Tile tile) {
+        synchronized (tiles) {
+            Tile previous = tiles.put(key, tile);
+            bytes += tile.data().length - (previous != null ? previous.data().length : 0);
+            var eldest = tiles.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().data().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record TileKey(UUID namespaceId, int z, int x, int y, String type, Boolean active, long version) {
+    }
+
+    private record Tile(byte[] data, long renderedAt) {
+    }
+}
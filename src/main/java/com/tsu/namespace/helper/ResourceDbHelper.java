@@ -4,6 +4,8 @@ import com.tsu.auth.security.AppSecurityContext;
 import com.tsu.common.jpa.JsonValueUtils;
 import com.tsu.common.jpa.Jsonb;
 import com.tsu.namespace.api.ResourceType;
+import com.tsu.namespace.entities.BookingHoldTb;
+import com.tsu.namespace.entities.BookingTb;
 import com.tsu.namespace.entities.ResourceExceptionTb;
 import com.tsu.namespace.entities.ResourceTb;
 import com.tsu.namespace.entities.ResourceWeeklyWindowTb;
@@ -13,7 +15,11 @@ import com.tsu.namespace.entities.id.ResourceWeeklyWindowId;
 import com.tsu.namespace.record.ResourceExceptionRecord;
 import com.tsu.namespace.record.ResourceRecord;
 import com.tsu.namespace.record.ResourceWeeklyWindowRecord;
+import com.tsu.namespace.helper.support.IntervalSet;
+import com.tsu.namespace.helper.support.StorageTime;
 import com.tsu.namespace.record.TimeSlotRecord;
+import com.tsu.namespace.repo.BookingHoldRepository;
+import com.tsu.namespace.repo.BookingRepository;
 import com.tsu.namespace.repo.ResourceExceptionRepository;
 import com.tsu.namespace.repo.ResourceRepository;
 import com.tsu.namespace.repo.ResourceWeeklyWindowRepository;
@@ -22,12 +28,24 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Database helper for resource operations.
@@ -40,6 +58,9 @@ public class ResourceDbHelper {
     private final ResourceRepository resourceRepository;
     private final ResourceWeeklyWindowRepository weeklyWindowRepository;
     private final ResourceExceptionRepository exceptionRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingHoldRepository holdRepository;
+    private final BookingSeriesDbHelper seriesDbHelper;
 
     public ResourceRecord createResource(UUID namespaceId,UUID resourceId, ResourceType type, String name,
                                         Integer capacity, String location, String timezone,
@@ -234,13 +255,178 @@ public class ResourceDbHelper {
         return exceptions.isEmpty();
     }
 
+    /**
+     * Compute free slots for a resource in {@code [startDate, endDate)}.
+     * <p>
+     * Weekly windows, overlapping exceptions, live bookings, series occurrences and unexpired holds
+     * are each loaded with one query, converted to epoch-second intervals and merged with a sorted sweep, so the
+     * cost is independent of the number of candidate slots in the range. Weekly windows are
+     * expanded in the resource timezone so DST transitions shift the window, not the slot grid.
+     * A resource without weekly windows is treated as open around the clock.
+     *
+     * @param durationMinutes slot length; when null or not positive the free intervals are returned as-is
+     */
+    @Transactional(readOnly = true)
     public List<TimeSlotRecord> findAvailableSlots(UUID namespaceId, UUID resourceId,
                                                    LocalDateTime startDate, LocalDateTime endDate,
                                                    Integer durationMinutes, AppSecurityContext context) {
-        // This is a simplified implementation - full implementation would need to
-        // check weekly windows and existing bookings
-        log.warn("findAvailableSlots is not fully implemented yet");
-        return List.of();
+        if (startDate == null || endDate == null || !endDate.isAfter(startDate)) {
+            return List.of();
+        }
+        ResourceTb resource = resourceRepository.findById(new ResourceId(namespaceId, resourceId))
+                .orElseThrow(() -> new IllegalArgumentException("Resource not found: " + resourceId));
+        ZoneId resourceZone = resolveZone(resource.getTimezone());
+        long from = StorageTime.toEpoch(startDate);
+        long to = StorageTime.toEpoch(endDate);
+
+        IntervalSet free = loadOpenIntervals(namespaceId, resourceId, resourceZone, startDate, endDate)
+                .subtract(loadBusyIntervals(namespaceId, resourceId, startDate, endDate))
+                .clip(from, to);
+
+        List<TimeSlotRecord> slots = toSlots(free, durationMinutes);
+        log.debug("Found {} available slots for resource {} between {} and {}",
+                slots.size(), resourceId, startDate, endDate);
+        return slots;
+    }
+
+    /**
+     * Return the ids among {@code resourceIds} that are free for the whole of {@code [startAt, endAt)},
+     * in the order they were requested.
+     * <p>
+     * Bookings, holds and exceptions are excluded in a single set-based query and series
+     * occurrences with one series and one exception query; the weekly windows of the remaining
+     * candidates are then loaded in one more query and checked in memory, so the cost is a fixed
+     * number of round trips regardless of how many resources are asked about.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findAvailableResources(UUID namespaceId, Collection<UUID> resourceIds,
+                                             LocalDateTime startAt, LocalDateTime endAt) {
+        if (resourceIds == null || resourceIds.isEmpty()
+                || startAt == null || endAt == null || !endAt.isAfter(startAt)) {
+            return List.of();
+        }
+        Map<UUID, ResourceTb> candidates = new HashMap<>();
+        try (Stream<ResourceTb> unblocked = resourceRepository.findUnblockedResources(
+                namespaceId, resourceIds, startAt, endAt, LocalDateTime.now())) {
+            unblocked.forEach(tb -> candidates.put(tb.getId().getId(), tb));
+        }
+        candidates.keySet().removeAll(seriesDbHelper.findOccupiedResources(namespaceId, candidates.keySet(), startAt, endAt));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, List<ResourceWeeklyWindowTb>> windows = new HashMap<>();
+        try (Stream<ResourceWeeklyWindowTb> stream = weeklyWindowRepository
+                .findByNamespaceIdAndResourceIdIn(namespaceId, candidates.keySet())) {
+            stream.forEach(w -> windows.computeIfAbsent(w.getResourceId(), k -> new ArrayList<>()).add(w));
+        }
+
+        long from = StorageTime.toEpoch(startAt);
+        long to = StorageTime.toEpoch(endAt);
+        Set<UUID> free = new HashSet<>();
+        candidates.forEach((id, tb) -> {
+            List<ResourceWeeklyWindowTb> resourceWindows = windows.getOrDefault(id, List.of());
+            if (resourceWindows.isEmpty()
+                    || expandWeeklyWindows(resourceWindows, resolveZone(tb.getTimezone()), startAt, endAt)
+                    .covers(from, to)) {
+                free.add(id);
+            }
+        });
+        log.debug("{} of {} resources available between {} and {}", free.size(), resourceIds.size(), startAt, endAt);
+
+        return resourceIds.stream()
+                .distinct()
+                .filter(free::contains)
+                .toList();
+    }
+
+    private IntervalSet loadOpenIntervals(UUID namespaceId, UUID resourceId, ZoneId zone,
+                                          LocalDateTime startDate, LocalDateTime endDate) {
+        List<ResourceWeeklyWindowTb> windows;
+        try (Stream<ResourceWeeklyWindowTb> stream = weeklyWindowRepository
+                .findByNamespaceIdAndResourceIdOrderByDowAndStartLocal(namespaceId, resourceId)) {
+            windows = stream.toList();
+        }
+        return expandWeeklyWindows(windows, zone, startDate, endDate);
+    }
+
+    /**
+     * Expand weekly windows into concrete intervals covering {@code [startDate, endDate)}.
+     * An empty window list means the resource has no opening-hour restriction.
+     */
+    private IntervalSet expandWeeklyWindows(List<ResourceWeeklyWindowTb> windows, ZoneId zone,
+                                            LocalDateTime startDate, LocalDateTime endDate) {
+        if (windows.isEmpty()) {
+            return IntervalSet.of(StorageTime.toEpoch(startDate), StorageTime.toEpoch(endDate));
+        }
+        // index 1..7 = Monday..Sunday, matching DayOfWeek#getValue
+        List<List<ResourceWeeklyWindowTb>> byDow = new ArrayList<>(8);
+        for (int i = 0; i <= 7; i++) {
+            byDow.add(new ArrayList<>());
+        }
+        windows.forEach(w -> byDow.get(w.getDow()).add(w));
+
+        LocalDate first = startDate.atZone(StorageTime.STORAGE_ZONE).withZoneSameInstant(zone).toLocalDate();
+        LocalDate last = endDate.atZone(StorageTime.STORAGE_ZONE).withZoneSameInstant(zone).toLocalDate();
+        IntervalSet open = new IntervalSet();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            for (ResourceWeeklyWindowTb window : byDow.get(day.getDayOfWeek().getValue())) {
+                open.add(ZonedDateTime.of(day, window.getStartLocal(), zone).toEpochSecond(),
+                        ZonedDateTime.of(day, window.getEndLocal(), zone).toEpochSecond());
+            }
+        }
+        return open;
+    }
+
+    private IntervalSet loadBusyIntervals(UUID namespaceId, UUID resourceId,
+                                          LocalDateTime startDate, LocalDateTime endDate) {
+        IntervalSet busy = new IntervalSet();
+        try (Stream<ResourceExceptionTb> exceptions = exceptionRepository
+                .findOverlappingExceptions(namespaceId, resourceId, startDate, endDate)) {
+            exceptions.forEach(e -> busy.add(StorageTime.toEpoch(e.getStartAt()), StorageTime.toEpoch(e.getEndAt())));
+        }
+        try (Stream<BookingTb> bookings = bookingRepository
+                .findOverlappingBookings(namespaceId, resourceId, startDate, endDate)) {
+            bookings.forEach(b -> busy.add(StorageTime.toEpoch(b.getStartAt()), StorageTime.toEpoch(b.getEndAt())));
+        }
+        try (Stream<BookingHoldTb> holds = holdRepository
+                .findOverlappingHolds(namespaceId, resourceId, startDate, endDate, LocalDateTime.now())) {
+            holds.forEach(h -> busy.add(StorageTime.toEpoch(h.getStartAt()), StorageTime.toEpoch(h.getEndAt())));
+        }
+        seriesDbHelper.findOccurrences(namespaceId, resourceId, startDate, endDate)
+                .forEach(o -> busy.add(StorageTime.toEpoch(o.startAt()), StorageTime.toEpoch(o.endAt())));
+        return busy.merged();
+    }
+
+    private List<TimeSlotRecord> toSlots(IntervalSet free, Integer durationMinutes) {
+        List<TimeSlotRecord> slots = new ArrayList<>();
+        if (durationMinutes == null || durationMinutes <= 0) {
+            free.forEach((start, end) -> {
+                slots.add(new TimeSlotRecord(StorageTime.fromEpoch(start), StorageTime.fromEpoch(end)));
+                return 0;
+            });
+            return slots;
+        }
+        long step = durationMinutes * 60L;
+        free.forEach((start, end) -> {
+            for (long slot = start; slot + step <= end; slot += step) {
+                slots.add(new TimeSlotRecord(StorageTime.fromEpoch(slot), StorageTime.fromEpoch(slot + step)));
+            }
+            return 0;
+        });
+        return slots;
+    }
+
+    private ZoneId resolveZone(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return StorageTime.STORAGE_ZONE;
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            log.warn("Invalid resource timezone '{}', falling back to {}", timezone, StorageTime.STORAGE_ZONE);
+            return StorageTime.STORAGE_ZONE;
+        }
     }
 
     // Record builders
@@ -0,0 +1,175 @@
+package com.tsu.namespace.helper;
+
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.entities.BookingWaitlistTb;
+import com.tsu.namespace.helper.event.HoldExpiredEvent;
+import com.tsu.namespace.repo.BookingWaitlistRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Promotes waitlist entries into a freed booking interval.
+ * <p>
+ * Called from {@link BookingDbHelper} inside the transaction that cancels or deletes a booking,
+ * and from {@link HoldExpiredEvent} for holds removed by the reaper. Candidates overlapping the
+ * freed interval are locked in priority order; each one whose full desired range is now free
+ * gets a hold (or a confirmed booking, with {@code promote-as=BOOKING}) and leaves the waitlist.
+ * <p>
+ * "Free" is the same check {@link ResourceDbHelper#findAvailableResources} applies: no live
+ * booking, hold or series occurrence, no closing exception, and inside the weekly windows. Each
+ * candidate is written in its own savepoint with plain JDBC (savepoints only cover JDBC access,
+ * not the JPA session), so a candidate that loses its slot to a concurrent insert on
+ * booking_no_overlap is skipped without rolling back the caller's cancellation.
+ */
+@Slf4j
+@Component
+public class WaitlistPromoter {
+
+    public enum PromoteAs {HOLD, BOOKING}
+
+    private static final String INSERT_HOLD = """
+            INSERT INTO booking_hold (id, namespace_id, resource_id, user_id, start_at, end_at, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_BOOKING = """
+            INSERT INTO booking (id, namespace_id, resource_id, user_id, start_at, end_at, status,
+                                 created_by, created_date, modified_by, modified_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_ENTRY = """
+            DELETE FROM booking_waitlist WHERE namespace_id = ? AND id = ?
+            """;
+
+    private final BookingWaitlistRepository waitlistRepository;
+    private final BookingOccupancyCache occupancyCache;
+    private final HoldExpiryReaper expiryReaper;
+    private final BookingSeriesDbHelper seriesDbHelper;
+    private final ResourceDbHelper resourceDbHelper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate candidateTransaction;
+    private final boolean enabled;
+    private final PromoteAs promoteAs;
+    private final long holdMinutes;
+    private final int maxCandidates;
+
+    public WaitlistPromoter(BookingWaitlistRepository waitlistRepository,
+                            BookingOccupancyCache occupancyCache,
+                            HoldExpiryReaper expiryReaper,
+                            BookingSeriesDbHelper seriesDbHelper,
+                            ResourceDbHelper resourceDbHelper,
+                            DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${bx.booking.waitlist.auto-promote:true}") boolean enabled,
+                            @Value("${bx.booking.waitlist.promote-as:HOLD}") PromoteAs promoteAs,
+                            @Value("${bx.booking.waitlist.hold-minutes:15}") long holdMinutes,
+                            @Value("${bx.booking.waitlist.max-candidates:20}") int maxCandidates) {
+        this.waitlistRepository = waitlistRepository;
+        this.occupancyCache = occupancyCache;
+        this.expiryReaper = expiryReaper;
+        this.seriesDbHelper = seriesDbHelper;
+        this.resourceDbHelper = resourceDbHelper;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.candidateTransaction = new TransactionTemplate(transactionManager);
+        this.candidateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.enabled = enabled;
+        this.promoteAs = promoteAs;
+        this.holdMinutes = holdMinutes;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Promote waitlist entries into {@code [start, end)} on the resource. Joins the caller's
+     * transaction so the freeing write and the promotion commit together; a candidate that fails
+     * on a concurrent overlap only rolls back its own savepoint.
+     *
+     * @return number of entries promoted
+     */
+    @Transactional
+    public int promote(UUID namespaceId, UUID resourceId, LocalDateTime start, LocalDateTime end) {
+        if (!enabled) {
+            return 0;
+        }
+        List<BookingWaitlistTb> candidates = waitlistRepository.lockPromotionCandidates(
+                namespaceId, resourceId, start, end, maxCandidates);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        // serialise with other writers of the resource before checking it
+        seriesDbHelper.lockResource(namespaceId, resourceId);
+        LocalDateTime now = LocalDateTime.now();
+        int promoted = 0;
+        for (BookingWaitlistTb entry : candidates) {
+            LocalDateTime desiredStart = entry.getDesiredStart();
+            LocalDateTime desiredEnd = entry.getDesiredEnd();
+            if (!desiredEnd.isAfter(now)) {
+                continue;
+            }
+            // the freed interval may only cover part of what the entry wants
+            if (resourceDbHelper.findAvailableResources(namespaceId, List.of(resourceId), desiredStart, desiredEnd).isEmpty()) {
+                continue;
+            }
+            if (promoteCandidate(entry, now)) {
+                promoted++;
+                log.info("Waitlist entry {} promoted to {} on resource {}", entry.getId().getId(), promoteAs, resourceId);
+            }
+        }
+        return promoted;
+    }
+
+    @EventListener
+    @Transactional
+    public void onHoldExpired(HoldExpiredEvent event) {
+        promote(event.namespaceId(), event.resourceId(), event.startAt(), event.endAt());
+    }
+
+    /**
+     * Write the hold or booking and drop the entry inside a savepoint. The new row stays visible
+     * to the availability checks of later candidates; caches are only told once it is in.
+     */
+    private boolean promoteCandidate(BookingWaitlistTb entry, LocalDateTime now) {
+        UUID namespaceId = entry.getId().getNamespaceId();
+        UUID id = UUID.randomUUID();
+        LocalDateTime expiresAt = now.plusMinutes(holdMinutes);
+        try {
+            candidateTransaction.executeWithoutResult(status -> {
+                if (promoteAs == PromoteAs.BOOKING) {
+                    jdbcTemplate.update(INSERT_BOOKING, id, namespaceId, entry.getResourceId(), entry.getUserId(),
+                            entry.getDesiredStart(), entry.getDesiredEnd(), BookingStatus.CONFIRMED.name(),
+                            entry.getUserId(), now, entry.getUserId(), now);
+                } else {
+                    jdbcTemplate.update(INSERT_HOLD, id, namespaceId, entry.getResourceId(), entry.getUserId(),
+                            entry.getDesiredStart(), entry.getDesiredEnd(), expiresAt, now);
+                }
+                jdbcTemplate.update(DELETE_ENTRY, namespaceId, entry.getId().getId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!BookingDbHelper.isOverlapViolation(e)) {
+                throw e;
+            }
+            log.info("Waitlist entry {} lost its slot to a concurrent booking", entry.getId().getId());
+            return false;
+        }
+        if (promoteAs == PromoteAs.BOOKING) {
+            occupancyCache.onWrite(namespaceId, entry.getResourceId(),
+                    null, BookingOccupancyCache.Slot.of(entry.getDesiredStart(), entry.getDesiredEnd()));
+        } else {
+            expiryReaper.track(id, expiresAt);
+        }
+        return true;
+    }
+}
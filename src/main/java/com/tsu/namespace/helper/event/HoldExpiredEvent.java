@@ -0,0 +1,17 @@
+package com.tsu.namespace.helper.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published after an expired booking hold has been deleted, so listeners (e.g. waitlist
+ * promotion) can react to the freed slot without polling.
+ */
+public record HoldExpiredEvent(UUID namespaceId,
+                               UUID holdId,
+                               UUID resourceId,
+                               UUID userId,
+                               LocalDateTime startAt,
+                               LocalDateTime endAt,
+                               LocalDateTime expiresAt) {
+}
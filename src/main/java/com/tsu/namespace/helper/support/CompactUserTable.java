@@ -0,0 +1,229 @@
+package com.tsu.namespace.helper.support;
+
+import com.tsu.namespace.val.NspUsrVal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Immutable member list of one namespace, laid out in columns instead of one object per member.
+ * <p>
+ * Rows are indexed by two open-addressing tables of row numbers, one keyed by the int user id and
+ * one by the principal UUID, which is kept as two longs. Display names and image URLs are packed
+ * as UTF-8 into one byte array per column and role names are interned into a small dictionary, so
+ * a member costs a few dozen bytes plus its text instead of the map nodes, boxed keys and value
+ * objects of two HashMaps. Values are rebuilt on every lookup, which trades a short-lived
+ * allocation for the retained heap.
+ */
+public final class CompactUserTable {
+
+    private static final int EMPTY_SLOT = 0;
+
+    private final int size;
+    private final int[] userIds;
+    private final long[] principalHigh;
+    private final long[] principalLow;
+    private final long[] active;
+    private final TextColumn displayNames;
+    private final TextColumn imageUrls;
+    private final char[] roles;
+    private final String[] roleNames;
+    // row + 1 per slot, EMPTY_SLOT when free
+    private final int[] idSlots;
+    private final int[] principalSlots;
+    private final int slotMask;
+
+    private CompactUserTable(Collection<NspUsrVal> users) {
+        int n = users.size();
+        int[] ids = new int[n];
+        long[] high = new long[n];
+        long[] low = new long[n];
+        long[] activeBits = new long[(n + 63) >>> 6];
+        String[] names = new String[n];
+        String[] images = new String[n];
+        char[] roleRefs = new char[n];
+        Map<String, Integer> roleIndex = new HashMap<>();
+        roleIndex.put(null, 0);
+
+        int slots = Integer.highestOneBit(Math.max(2, n * 2 - 1)) << 1;
+        this.slotMask = slots - 1;
+        this.idSlots = new int[slots];
+        this.principalSlots = new int[slots];
+
+        int row = 0;
+        for (NspUsrVal user : users) {
+            // a repeated user id keeps its first row
+            if (user.userId() == null || find(ids, user.userId()) >= 0) {
+                continue;
+            }
+            ids[row] = user.userId();
+            high[row] = user.principalId().getMostSignificantBits();
+            low[row] = user.principalId().getLeastSignificantBits();
+            if (user.active()) {
+                activeBits[row >>> 6] |= 1L << row;
+            }
+            names[row] = user.displayName();
+            images[row] = user.imageUrl();
+            int role = roleIndex.computeIfAbsent(user.role(), k -> roleIndex.size());
+            if (role > Character.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many distinct roles: " + role);
+            }
+            roleRefs[row] = (char) role;
+            insert(idSlots, hash(ids[row]), row);
+            insert(principalSlots, hash(high[row], low[row]), row);
+            row++;
+        }
+        this.size = row;
+        this.userIds = Arrays.copyOf(ids, row);
+        this.principalHigh = Arrays.copyOf(high, row);
+        this.principalLow = Arrays.copyOf(low, row);
+        this.active = activeBits;
+        this.displayNames = new TextColumn(names, row);
+        this.imageUrls = new TextColumn(images, row);
+        this.roles = Arrays.copyOf(roleRefs, row);
+        this.roleNames = new String[roleIndex.size()];
+        roleIndex.forEach((name, index) -> roleNames[index] = name);
+    }
+
+    public static CompactUserTable of(Collection<NspUsrVal> users) {
+        return new CompactUserTable(users);
+    }
+
+    public NspUsrVal get(int userId) {
+        int row = find(userIds, userId);
+        return row >= 0 ? materialize(row) : null;
+    }
+
+    public NspUsrVal getByPrincipal(UUID principalId) {
+        long high = principalId.getMostSignificantBits();
+        long low = principalId.getLeastSignificantBits();
+        for (int i = hash(high, low) & slotMask; ; i = (i + 1) & slotMask) {
+            int ref = principalSlots[i];
+            if (ref == EMPTY_SLOT) {
+                return null;
+            }
+            int row = ref - 1;
+            if (principalHigh[row] == high && principalLow[row] == low) {
+                return materialize(row);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Consumer<NspUsrVal> action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(materialize(row));
+        }
+    }
+
+    /**
+     * Approximate retained size in bytes, arrays and their headers only.
+     */
+    public long estimatedBytes() {
+        long bytes = 16L * 9;
+        bytes += 4L * userIds.length + 8L * principalHigh.length + 8L * principalLow.length + 8L * active.length;
+        bytes += 2L * roles.length + 4L * idSlots.length + 4L * principalSlots.length;
+        bytes += displayNames.estimatedBytes() + imageUrls.estimatedBytes();
+        for (String role : roleNames) {
+            bytes += role != null ? 40 + role.length() : 0;
+        }
+        return bytes;
+    }
+
+    private NspUsrVal materialize(int row) {
+        return new NspUsrVal(new UUID(principalHigh[row], principalLow[row]), userIds[row],
+                (active[row >>> 6] & (1L << row)) != 0, displayNames.get(row), imageUrls.get(row), roleNames[roles[row]]);
+    }
+
+    private int find(int[] ids, int userId) {
+        for (int i = hash(userId) & slotMask; ; i = (i + 1) & slotMask) {
+            int ref = idSlots[i];
+            if (ref == EMPTY_SLOT) {
+                return -1;
+            }
+            if (ids[ref - 1] == userId) {
+                return ref - 1;
+            }
+        }
+    }
+
+    private void insert(int[] slots, int hash, int row) {
+        int i = hash & slotMask;
+        while (slots[i] != EMPTY_SLOT) {
+            i = (i + 1) & slotMask;
+        }
+        slots[i] = row + 1;
+    }
+
+    private static int hash(int key) {
+        // murmur3 finalizer: user ids are sequential, spread them over the table
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int hash(long high, long low) {
+        long h = high ^ Long.rotateLeft(low, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Nullable strings packed as UTF-8; row {@code i} spans {@code offsets[i]..offsets[i + 1]} and a
+     * null is marked by a set bit in {@code nulls}.
+     */
+    private static final class TextColumn {
+
+        private final byte[] data;
+        private final int[] offsets;
+        private final long[] nulls;
+
+        private TextColumn(String[] values, int rows) {
+            byte[][] encoded = new byte[rows][];
+            int total = 0;
+            for (int i = 0; i < rows; i++) {
+                encoded[i] = values[i] != null ? values[i].getBytes(StandardCharsets.UTF_8) : null;
+                total += encoded[i] != null ? encoded[i].length : 0;
+            }
+            this.data = new byte[total];
+            this.offsets = new int[rows + 1];
+            this.nulls = new long[(rows + 63) >>> 6];
+            int offset = 0;
+            for (int i = 0; i < rows; i++) {
+                offsets[i] = offset;
+                if (encoded[i] == null) {
+                    nulls[i >>> 6] |= 1L << i;
+                } else {
+                    System.arraycopy(encoded[i], 0, data, offset, encoded[i].length);
+                    offset += encoded[i].length;
+                }
+            }
+            offsets[rows] = offset;
+        }
+
+        private String get(int row) {
+            if ((nulls[row >>> 6] & (1L << row)) != 0) {
+                return null;
+            }
+            return new String(data, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+        }
+
+        private long estimatedBytes() {
+            return 16L * 3 + data.length + 4L * offsets.length + 8L * nulls.length;
+        }
+    }
+}
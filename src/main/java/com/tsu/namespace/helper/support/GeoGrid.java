@@ -0,0 +1,307 @@
+package com.tsu.namespace.helper.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Points on a fixed latitude/longitude grid, for radius, box and nearest-neighbour lookups.
+ * <p>
+ * Each occupied cell holds its points in immutable parallel arrays that are replaced on write, so
+ * readers never lock and see every cell either before or after a write. Candidates come from the
+ * cells overlapping the query and are refined with the haversine distance on a sphere of
+ * {@link #EARTH_RADIUS_METERS}; PostGIS geography measures on the spheroid, so the two can differ
+ * by up to about 0.5% for points right at the edge of a radius. Writes are serialized.
+ */
+public final class GeoGrid {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final Comparator<Hit> BY_DISTANCE = Comparator.comparingDouble(Hit::distanceMeters);
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> cellOf = new HashMap<>();
+    private volatile int size;
+
+    public GeoGrid(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+        }
+        // a whole number of columns, so that wrapping a column index wraps the longitude exactly
+        this.cols = (int) Math.round(360 / cellDegrees);
+        this.cellDegrees = 360.0 / cols;
+        this.rows = (int) Math.ceil(180 / this.cellDegrees);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the point, or move it if {@code id} is already on the grid.
+     */
+    public synchronized void put(UUID id, double lat, double lng) {
+        long key = key(row(lat), col(lng));
+        Long previous = cellOf.put(id, key);
+        if (previous != null) {
+            cells.computeIfPresent(previous, (k, cell) -> cell.without(id));
+        }
+        cells.merge(key, Cell.of(id, lat, lng), (cell, added) -> cell.with(id, lat, lng));
+        size = cellOf.size();
+    }
+
+    public synchronized boolean remove(UUID id) {
+        Long previous = cellOf.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        cells.computeIfPresent(previous, (k, cell) -> cell.without(id));
+        size = cellOf.size();
+        return true;
+    }
+
+    /**
+     * Points within {@code radiusMeters} of (lat, lng), nearest first.
+     */
+    public List<Hit> within(double lat, double lng, double radiusMeters) {
+        List<Hit> hits = new ArrayList<>();
+        if (radiusMeters < 0) {
+            return hits;
+        }
+        double radians = radiusMeters / EARTH_RADIUS_METERS;
+        double dLat = Math.toDegrees(radians);
+        int rowFrom = row(lat - dLat);
+        int rowTo = row(lat + dLat);
+        int colFrom = 0;
+        int colTo = cols - 1;
+        if (Math.abs(lat) + dLat < 90 && radians < Math.PI / 2) {
+            // widest longitude span of the spherical cap, reached away from the centre latitude
+            double dLng = Math.toDegrees(Math.asin(Math.min(1, Math.sin(radians) / Math.cos(Math.toRadians(lat)))));
+            colFrom = (int) Math.floor((lng + 180 - dLng) / cellDegrees);
+            colTo = (int) Math.floor((lng + 180 + dLng) / cellDegrees);
+        }
+        forEachCell(rowFrom, rowTo, colFrom, colTo, cell -> {
+            for (int i = 0; i < cell.ids.length; i++) {
+                double distance = haversine(lat, lng, cell.lat[i], cell.lng[i]);
+                if (distance <= radiusMeters) {
+                    hits.add(new Hit(cell.ids[i], cell.lat[i], cell.lng[i], distance));
+                }
+            }
+        });
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * Points inside the box, edges included, in no particular order. The box does not wrap the
+     * antimeridian: {@code minLng > maxLng} matches nothing, as with ST_MakeEnvelope.
+     */
+    public List<Hit> withinBox(double minLat, double maxLat, double minLng, double maxLng) {
+        List<Hit> hits = new ArrayList<>();
+        if (minLat > maxLat || minLng > maxLng) {
+            return hits;
+        }
+        forEachCell(row(minLat), row(maxLat), col(minLng), col(maxLng), cell -> {
+            for (int i = 0; i < cell.ids.length; i++) {
+                double pLat = cell.lat[i];
+                double pLng = cell.lng[i];
+                if (pLat >= minLat && pLat <= maxLat && pLng >= minLng && pLng <= maxLng) {
+                    hits.add(new Hit(cell.ids[i], pLat, pLng, 0));
+                }
+            }
+        });
+        return hits;
+    }
+
+    /**
+     * The {@code k} points nearest to (lat, lng), nearest first.
+     * <p>
+     * Scans rings of cells outwards from the query's cell and stops once the k-th distance found is
+     * no larger than the shortest distance to any cell not scanned yet. Once the rings would have
+     * visited more cells than there are points, or would wrap around the globe, all points are
+     * scanned directly instead.
+     */
+    public List<Hit> nearest(double lat, double lng, int k) {
+        if (k < 1 || size == 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, BY_DISTANCE.reversed());
+        int row = row(lat);
+        int col = col(lng);
+        long scanned = 0;
+        for (int ring = 0; ; ring++) {
+            scanned += ring == 0 ? 1 : 8L * ring;
+            // past half the columns a ring wraps onto cells it has already visited
+            if (scanned > size || 2 * ring + 1 > cols) {
+                best.clear();
+                cells.values().forEach(cell -> offer(best, k, cell, lat, lng));
+                break;
+            }
+            scanRing(row, col, ring, cell -> offer(best, k, cell, lat, lng));
+            if (best.size() == k && best.peek().distanceMeters() <= unscannedDistance(lat, ring)) {
+                break;
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * Great-circle distance in meters.
+     */
+    public static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public record Hit(UUID id, double lat, double lng, double distanceMeters) {
+    }
+
+    private static void offer(PriorityQueue<Hit> best, int k, Cell cell, double lat, double lng) {
+        for (int i = 0; i < cell.ids.length; i++) {
+            double distance = haversine(lat, lng, cell.lat[i], cell.lng[i]);
+            if (best.size() < k) {
+                best.add(new Hit(cell.ids[i], cell.lat[i], cell.lng[i], distance));
+            } else if (distance < best.peek().distanceMeters()) {
+                best.poll();
+                best.add(new Hit(cell.ids[i], cell.lat[i], cell.lng[i], distance));
+            }
+        }
+    }
+
+    /**
+     * Lower bound of the distance from a point at {@code lat} to anything outside rings 0..ring,
+     * which lie at least {@code ring} cells away in latitude or in longitude.
+     */
+    private double unscannedDistance(double lat, int ring) {
+        double delta = Math.toRadians(ring * cellDegrees);
+        double alongMeridian = delta;
+        // distance to the great circle through the nearest unscanned meridian
+        double acrossMeridians = Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(Math.min(delta, Math.PI / 2)));
+        return EARTH_RADIUS_METERS * Math.min(alongMeridian, acrossMeridians);
+    }
+
+    private void scanRing(int row, int col, int ring, Consumer<Cell> action) {
+        if (ring == 0) {
+            visit(row, col, action);
+            return;
+        }
+        for (int c = col - ring; c <= col + ring; c++) {
+            visit(row - ring, c, action);
+            visit(row + ring, c, action);
+        }
+        for (int r = row - ring + 1; r <= row + ring - 1; r++) {
+            visit(r, col - ring, action);
+            visit(r, col + ring, action);
+        }
+    }
+
+    private void visit(int row, int col, Consumer<Cell> action) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        Cell cell = cells.get(key(row, Math.floorMod(col, cols)));
+        if (cell != null) {
+            action.accept(cell);
+        }
+    }
+
+    /**
+     * Visit the cells of rows {@code rowFrom..rowTo} and columns {@code colFrom..colTo}, columns
+     * wrapping around the antimeridian; walks the occupied cells instead when that is fewer.
+     */
+    private void forEachCell(int rowFrom, int rowTo, int colFrom, int colTo, Consumer<Cell> action) {
+        int colSpan = Math.min(cols, colTo - colFrom + 1);
+        long area = (long) (rowTo - rowFrom + 1) * colSpan;
+        if (area > cells.size()) {
+            cells.forEach((key, cell) -> {
+                int r = (int) (key / cols);
+                int c = (int) (key % cols);
+                if (r >= rowFrom && r <= rowTo && Math.floorMod(c - colFrom, cols) < colSpan) {
+                    action.accept(cell);
+                }
+            });
+            return;
+        }
+        for (int r = rowFrom; r <= rowTo; r++) {
+            for (int c = colFrom; c < colFrom + colSpan; c++) {
+                visit(r, c, action);
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((lat + 90) / cellDegrees)));
+    }
+
+    private int col(double lng) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor((lng + 180) / cellDegrees)));
+    }
+
+    private long key(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    private static final class Cell {
+
+        private final UUID[] ids;
+        private final double[] lat;
+        private final double[] lng;
+
+        private Cell(UUID[] ids, double[] lat, double[] lng) {
+            this.ids = ids;
+            this.lat = lat;
+            this.lng = lng;
+        }
+
+        static Cell of(UUID id, double lat, double lng) {
+            return new Cell(new UUID[]{id}, new double[]{lat}, new double[]{lng});
+        }
+
+        Cell with(UUID id, double pLat, double pLng) {
+            int n = ids.length;
+            Cell copy = new Cell(Arrays.copyOf(ids, n + 1), Arrays.copyOf(lat, n + 1), Arrays.copyOf(lng, n + 1));
+            copy.ids[n] = id;
+            copy.lat[n] = pLat;
+            copy.lng[n] = pLng;
+            return copy;
+        }
+
+        /**
+         * Null, which drops the cell from the map, when the last point goes.
+         */
+        Cell without(UUID id) {
+            int n = ids.length;
+            for (int i = 0; i < n; i++) {
+                if (ids[i].equals(id)) {
+                    if (n == 1) {
+                        return null;
+                    }
+                    Cell copy = new Cell(new UUID[n - 1], new double[n - 1], new double[n - 1]);
+                    System.arraycopy(ids, 0, copy.ids, 0, i);
+                    System.arraycopy(ids, i + 1, copy.ids, i, n - i - 1);
+                    System.arraycopy(lat, 0, copy.lat, 0, i);
+                    System.arraycopy(lat, i + 1, copy.lat, i, n - i - 1);
+                    System.arraycopy(lng, 0, copy.lng, 0, i);
+                    System.arraycopy(lng, i + 1, copy.lng, i, n - i - 1);
+                    return copy;
+                }
+            }
+            return this;
+        }
+    }
+}
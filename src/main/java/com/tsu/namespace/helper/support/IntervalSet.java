@@ -0,0 +1,288 @@
+package com.tsu.namespace.helper.support;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Set of half-open {@code [start, end)} intervals over a long time axis (epoch seconds),
+ * stored as two parallel primitive arrays.
+ * <p>
+ * Intervals may be added in any order; {@link #merged()} sorts and coalesces them so the
+ * set operations below can run as a single linear sweep.
+ */
+public final class IntervalSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] starts;
+    private long[] ends;
+    private int size;
+    private boolean normalized;
+
+    public IntervalSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public IntervalSet(int capacity) {
+        int cap = Math.max(capacity, 1);
+        this.starts = new long[cap];
+        this.ends = new long[cap];
+        this.normalized = true;
+    }
+
+    private IntervalSet(long[] starts, long[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+        this.normalized = true;
+    }
+
+    public static IntervalSet of(long start, long end) {
+        IntervalSet set = new IntervalSet(1);
+        set.add(start, end);
+        return set;
+    }
+
+    /**
+     * Build an already merged set from sorted, non-overlapping parallel arrays without copying.
+     */
+    public static IntervalSet wrapSorted(long[] starts, long[] ends, int size) {
+        return new IntervalSet(starts, ends, size);
+    }
+
+    public IntervalSet add(long start, long end) {
+        if (end <= start) {
+            return this;
+        }
+        if (size == starts.length) {
+            int cap = starts.length * 2;
+            starts = Arrays.copyOf(starts, cap);
+            ends = Arrays.copyOf(ends, cap);
+        }
+        if (size > 0 && start < ends[size - 1]) {
+            normalized = false;
+        } else if (size > 0 && start == ends[size - 1] && normalized) {
+            // adjacent to the last interval: extend instead of appending
+            ends[size - 1] = end;
+            return this;
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return merged().size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long startAt(int index) {
+        return starts[index];
+    }
+
+    public long endAt(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Sort by start and coalesce overlapping or touching intervals in place.
+     */
+    public IntervalSet merged() {
+        if (normalized) {
+            return this;
+        }
+        sort(starts, ends, 0, size - 1);
+        int out = 0;
+        for (int i = 1; i < size; i++) {
+            if (starts[i] <= ends[out]) {
+                ends[out] = Math.max(ends[out], ends[i]);
+            } else {
+                out++;
+                starts[out] = starts[i];
+                ends[out] = ends[i];
+            }
+        }
+        size = size == 0 ? 0 : out + 1;
+        normalized = true;
+        return this;
+    }
+
+    /**
+     * Intervals of this set not covered by {@code other}.
+     */
+    public IntervalSet subtract(IntervalSet other) {
+        IntervalSet a = merged();
+        IntervalSet b = other.merged();
+        IntervalSet result = new IntervalSet(a.size + b.size);
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            long cursor = a.starts[i];
+            long end = a.ends[i];
+            while (j < b.size && b.ends[j] <= cursor) {
+                j++;
+            }
+            int k = j;
+            while (k < b.size && b.starts[k] < end) {
+                if (b.starts[k] > cursor) {
+                    result.add(cursor, b.starts[k]);
+                }
+                cursor = Math.max(cursor, b.ends[k]);
+                if (cursor >= end) {
+                    break;
+                }
+                k++;
+            }
+            if (cursor < end) {
+                result.add(cursor, end);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intervals of this set clipped to {@code [from, to)}.
+     */
+    public IntervalSet clip(long from, long to) {
+        return intersect(of(from, to));
+    }
+
+    public IntervalSet intersect(IntervalSet other) {
+        IntervalSet a = merged();
+        IntervalSet b = other.merged();
+        IntervalSet result = new IntervalSet(Math.max(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            long start = Math.max(a.starts[i], b.starts[j]);
+            long end = Math.min(a.ends[i], b.ends[j]);
+            if (start < end) {
+                result.add(start, end);
+            }
+            if (a.ends[i] < b.ends[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public IntervalSet union(IntervalSet other) {
+        IntervalSet result = new IntervalSet(size + other.size);
+        for (int i = 0; i < size; i++) {
+            result.add(starts[i], ends[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            result.add(other.starts[i], other.ends[i]);
+        }
+        return result.merged();
+    }
+
+    /**
+     * True when any interval intersects {@code [start, end)}. Binary search over the merged set.
+     */
+    public boolean overlaps(long start, long end) {
+        IntervalSet set = merged();
+        int lo = 0;
+        int hi = set.size - 1;
+        // first interval whose end is after start
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (set.ends[mid] <= start) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo < set.size && set.starts[lo] < end;
+    }
+
+    /**
+     * True when {@code [start, end)} lies entirely inside a single interval.
+     */
+    public boolean covers(long start, long end) {
+        IntervalSet set = merged();
+        int lo = 0;
+        int hi = set.size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (set.ends[mid] <= start) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo < set.size && set.starts[lo] <= start && set.ends[lo] >= end;
+    }
+
+    /**
+     * Visit every interval in order; stops early when the visitor returns a negative value.
+     */
+    public void forEach(LongBinaryOperator visitor) {
+        IntervalSet set = merged();
+        for (int i = 0; i < set.size; i++) {
+            if (visitor.applyAsLong(set.starts[i], set.ends[i]) < 0) {
+                return;
+            }
+        }
+    }
+
+    private static void sort(long[] s, long[] e, int lo, int hi) {
+        while (lo < hi) {
+            if (hi - lo < 16) {
+                for (int i = lo + 1; i <= hi; i++) {
+                    long ks = s[i];
+                    long ke = e[i];
+                    int j = i - 1;
+                    while (j >= lo && s[j] > ks) {
+                        s[j + 1] = s[j];
+                        e[j + 1] = e[j];
+                        j--;
+                    }
+                    s[j + 1] = ks;
+                    e[j + 1] = ke;
+                }
+                return;
+            }
+            long pivot = s[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (s[i] < pivot) i++;
+                while (s[j] > pivot) j--;
+                if (i <= j) {
+                    long ts = s[i];
+                    s[i] = s[j];
+                    s[j] = ts;
+                    long te = e[i];
+                    e[i] = e[j];
+                    e[j] = te;
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half to bound stack depth
+            if (j - lo < hi - i) {
+                sort(s, e, lo, j);
+                lo = i;
+            } else {
+                sort(s, e, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("IntervalSet[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('[').append(starts[i]).append(',').append(ends[i]).append(')');
+        }
+        return sb.append(']').toString();
+    }
+}
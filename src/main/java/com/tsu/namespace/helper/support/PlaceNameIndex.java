@@ -0,0 +1,245 @@
+package com.tsu.namespace.helper.support;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the primary and alternate names of one namespace's places.
+ * <p>
+ * Every name is normalized (case folded, accents and punctuation removed) and filed in a sorted
+ * map under the whole name and under each later word, so "main" finds "Old Main Street". A prefix
+ * lookup walks the key range of the prefix and keeps the best-ranked match per place. Short
+ * prefixes match a large share of the namespace, so their best {@link #HOT_DEPTH} entries are kept
+ * and dropped again by any write under them. Readers do not lock; writes are serialized.
+ */
+public final class PlaceNameIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final char SEPARATOR = '\u0001';
+    private static final int MAX_WORDS = 4;
+    private static final int HOT_PREFIX_LENGTH = 2;
+    private static final int HOT_DEPTH = 64;
+    // a match at the start of the name ranks above the same place matched by a later word
+    private static final double NAME_START_BONUS = 0.5;
+
+    private static final Comparator<Term> BY_RANK = Comparator.comparingDouble(Term::score).reversed()
+            .thenComparingInt(term -> term.name().length())
+            .thenComparing(Term::name);
+
+    private final ToDoubleFunction<PlaceNames> ranking;
+    private final NavigableMap<String, Term> terms = new ConcurrentSkipListMap<>();
+    private final Map<UUID, PlaceNames> places = new HashMap<>();
+    private final Map<Long, UUID> altNamePlaces = new HashMap<>();
+    private final Map<String, List<Term>> hot = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+
+    /**
+     * @param ranking score of a place; higher ranks first
+     */
+    public PlaceNameIndex(ToDoubleFunction<PlaceNames> ranking) {
+        this.ranking = ranking;
+    }
+
+    public synchronized int size() {
+        return places.size();
+    }
+
+    /**
+     * Add or replace a place. The alternate names already indexed for it are kept.
+     */
+    public synchronized void putPlace(UUID placeId, String name, String type, long population, boolean active) {
+        PlaceNames previous = places.get(placeId);
+        Map<Long, AltName> altNames = previous != null ? previous.altNames() : new LinkedHashMap<>();
+        reindex(previous, new PlaceNames(placeId, name, type, population, active, altNames));
+    }
+
+    public synchronized boolean removePlace(UUID placeId) {
+        PlaceNames previous = places.get(placeId);
+        if (previous == null) {
+            return false;
+        }
+        reindex(previous, null);
+        return true;
+    }
+
+    /**
+     * Add an alternate name; false when the place is unknown.
+     */
+    public synchronized boolean putAltName(UUID placeId, long altNameId, String name, String lang) {
+        PlaceNames previous = places.get(placeId);
+        if (previous == null) {
+            return false;
+        }
+        Map<Long, AltName> altNames = new LinkedHashMap<>(previous.altNames());
+        altNames.put(altNameId, new AltName(name, lang));
+        reindex(previous, previous.withAltNames(altNames));
+        return true;
+    }
+
+    public synchronized void removeAltName(long altNameId) {
+        UUID placeId = altNamePlaces.get(altNameId);
+        PlaceNames previous = placeId != null ? places.get(placeId) : null;
+        if (previous == null) {
+            return;
+        }
+        Map<Long, AltName> altNames = new LinkedHashMap<>(previous.altNames());
+        altNames.remove(altNameId);
+        reindex(previous, previous.withAltNames(altNames));
+    }
+
+    /**
+     * Up to {@code limit} active places with a name starting with {@code prefix}, best ranked
+     * first, one suggestion per place. Alternate names are matched when their language is
+     * {@code lang}, or always when {@code lang} is null; primary names always are.
+     */
+    public List<Suggestion> complete(String prefix, String lang, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        if (key.length() <= HOT_PREFIX_LENGTH) {
+            List<Term> top = hotTerms(key);
+            List<Suggestion> suggestions = pick(top, lang, limit);
+            // the hot list is cut at HOT_DEPTH; when filtering left too few, walk the full range
+            if (suggestions.size() >= limit || top.size() < HOT_DEPTH) {
+                return suggestions;
+            }
+        }
+        List<Term> matches = new ArrayList<>(range(key).values());
+        matches.sort(BY_RANK);
+        return pick(matches, lang, limit);
+    }
+
+    /**
+     * Lower-case letters and digits of {@code text}, accents removed, words separated by one space.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    public record Suggestion(UUID placeId, String name, String matchedName, String lang, String type) {
+    }
+
+    /**
+     * A place as indexed; {@code altNames} by alternate name id.
+     */
+    public record PlaceNames(UUID placeId, String name, String type, long population, boolean active,
+                             Map<Long, AltName> altNames) {
+
+        PlaceNames withAltNames(Map<Long, AltName> altNames) {
+            return new PlaceNames(placeId, name, type, population, active, altNames);
+        }
+    }
+
+    public record AltName(String name, String lang) {
+    }
+
+    private record Term(String key, PlaceNames place, String name, String lang, boolean primary, double score) {
+    }
+
+    private List<Term> hotTerms(String key) {
+        List<Term> cached = hot.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = modifications.get();
+        List<Term> top = range(key).values().stream().sorted(BY_RANK).limit(HOT_DEPTH).toList();
+        // a write that ran meanwhile may not have dropped this prefix yet; do not keep its result
+        if (hot.putIfAbsent(key, top) == null && modifications.get() != seen) {
+            hot.remove(key, top);
+        }
+        return top;
+    }
+
+    private NavigableMap<String, Term> range(String key) {
+        return terms.subMap(key, true, key + Character.MAX_VALUE, false);
+    }
+
+    private static List<Suggestion> pick(List<Term> ranked, String lang, int limit) {
+        Map<UUID, Suggestion> best = new LinkedHashMap<>();
+        for (Term term : ranked) {
+            if (best.size() >= limit) {
+                break;
+            }
+            if (!term.primary() && lang != null && !lang.equalsIgnoreCase(term.lang())) {
+                continue;
+            }
+            PlaceNames place = term.place();
+            best.putIfAbsent(place.placeId(), new Suggestion(place.placeId(), place.name(), term.name(), term.lang(), place.type()));
+        }
+        return new ArrayList<>(best.values());
+    }
+
+    private void reindex(PlaceNames previous, PlaceNames next) {
+        modifications.incrementAndGet();
+        if (previous != null) {
+            for (Term term : terms(previous)) {
+                terms.remove(term.key());
+                dropHot(term.key());
+            }
+            previous.altNames().keySet().forEach(altNamePlaces::remove);
+            places.remove(previous.placeId());
+        }
+        if (next != null) {
+            places.put(next.placeId(), next);
+            next.altNames().keySet().forEach(id -> altNamePlaces.put(id, next.placeId()));
+            for (Term term : terms(next)) {
+                terms.put(term.key(), term);
+                dropHot(term.key());
+            }
+        }
+        // counted before and after, so a hot list read across any part of the write is discarded
+        modifications.incrementAndGet();
+    }
+
+    private void dropHot(String key) {
+        for (int length = 1; length <= HOT_PREFIX_LENGTH && length <= key.length(); length++) {
+            hot.remove(key.substring(0, length));
+        }
+    }
+
+    private List<Term> terms(PlaceNames place) {
+        List<Term> result = new ArrayList<>();
+        if (!place.active()) {
+            return result;
+        }
+        double score = ranking.applyAsDouble(place);
+        addTerms(result, place, place.name(), null, "p", true, score);
+        place.altNames().forEach((id, alt) -> addTerms(result, place, alt.name(), alt.lang(), "a" + id, false, score));
+        return result;
+    }
+
+    private static void addTerms(List<Term> result, PlaceNames place, String name, String lang, String source,
+                                 boolean primary, double score) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String suffix = SEPARATOR + place.placeId().toString() + SEPARATOR + source + SEPARATOR;
+        int start = 0;
+        for (int word = 0; word < MAX_WORDS && start >= 0; word++) {
+            double bonus = word == 0 ? NAME_START_BONUS : 0;
+            result.add(new Term(normalized.substring(start) + suffix + word, place, name, lang, primary, score + bonus));
+            int space = normalized.indexOf(' ', start);
+            start = space >= 0 ? space + 1 : -1;
+        }
+    }
+}
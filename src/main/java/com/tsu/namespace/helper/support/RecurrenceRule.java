@@ -0,0 +1,344 @@
+package com.tsu.namespace.helper.support;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Recurrence rule, a subset of RFC 5545 RRULE: {@code FREQ=DAILY|WEEKLY|MONTHLY}, {@code INTERVAL},
+ * {@code BYDAY} (weekly, plain day codes), {@code BYMONTHDAY} (monthly, negative counts from the
+ * month end), and at most one of {@code COUNT} / {@code UNTIL}.
+ * <p>
+ * Occurrences are generated in the series' zone from the first occurrence's local date and time,
+ * so a 09:00 standup stays at 09:00 across DST changes. Expansion for open-ended rules jumps
+ * straight to the queried window instead of walking from the first occurrence.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency {DAILY, WEEKLY, MONTHLY}
+
+    // guard for rules that can never produce an occurrence (e.g. BYMONTHDAY=31 every February)
+    private static final int MAX_EMPTY_PERIODS = 1_000;
+    private static final DateTimeFormatter UNTIL_UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter UNTIL_LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final DayOfWeek[] byDay;
+    private final int[] byMonthDay;
+    private final Integer count;
+    private final String until;
+
+    private RecurrenceRule(Frequency frequency, int interval, DayOfWeek[] byDay, int[] byMonthDay,
+                           Integer count, String until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.byMonthDay = byMonthDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * Parse an RRULE value, with or without the {@code RRULE:} prefix.
+     *
+     * @throws IllegalArgumentException for unsupported or malformed rules
+     */
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Recurrence rule is empty");
+        }
+        String value = rule.strip();
+        if (value.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            value = value.substring(6);
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        DayOfWeek[] byDay = null;
+        int[] byMonthDay = null;
+        Integer count = null;
+        String until = null;
+        for (String part : value.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part);
+            }
+            String name = part.substring(0, eq).strip().toUpperCase(Locale.ROOT);
+            String arg = part.substring(eq + 1).strip().toUpperCase(Locale.ROOT);
+            try {
+                switch (name) {
+                    case "FREQ" -> frequency = Frequency.valueOf(arg);
+                    case "INTERVAL" -> interval = Integer.parseInt(arg);
+                    case "BYDAY" -> byDay = parseDays(arg);
+                    case "BYMONTHDAY" -> byMonthDay = parseMonthDays(arg);
+                    case "COUNT" -> count = Integer.parseInt(arg);
+                    case "UNTIL" -> until = arg;
+                    case "WKST" -> {
+                        // weeks always start on Monday here
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported recurrence rule part: " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed recurrence rule part: " + part, e);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence rule needs FREQ");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("INTERVAL must be positive");
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("COUNT must be positive");
+        }
+        if (count != null && until != null) {
+            throw new IllegalArgumentException("COUNT and UNTIL are mutually exclusive");
+        }
+        if (byDay != null && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+        }
+        if (byMonthDay != null && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("BYMONTHDAY is only supported with FREQ=MONTHLY");
+        }
+        if (until != null) {
+            // validate eagerly, resolution needs the series zone
+            untilInstant(until, ZoneOffset.UTC);
+        }
+        return new RecurrenceRule(frequency, interval, byDay, byMonthDay, count, until);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public boolean isBounded() {
+        return count != null || until != null;
+    }
+
+    /**
+     * Visit occurrences of a series starting at {@code first} whose {@code [start, start + duration)}
+     * overlaps {@code [from, to)}, all in epoch seconds. The visitor receives (start, end) and stops
+     * the expansion by returning a negative value.
+     */
+    public void expand(ZonedDateTime first, long durationSeconds, long from, long to, LongBinaryOperator visitor) {
+        ZoneId zone = first.getZone();
+        LocalDate firstDate = first.toLocalDate();
+        LocalTime time = first.toLocalTime();
+        long untilEpoch = until != null ? untilInstant(until, zone).getEpochSecond() : Long.MAX_VALUE;
+
+        long period = 0;
+        if (count == null && from > first.toEpochSecond()) {
+            // nothing starting before (from - duration) can reach the window; a day of slack covers DST
+            LocalDate earliest = Instant.ofEpochSecond(from - durationSeconds).atZone(zone).toLocalDate().minusDays(1);
+            period = Math.max(0, Math.floorDiv(periodsBetween(firstDate, earliest), interval));
+        }
+        int produced = 0;
+        int emptyPeriods = 0;
+        LocalDate[] dates = new LocalDate[Math.max(byDay != null ? byDay.length : 1, byMonthDay != null ? byMonthDay.length : 1)];
+        while (true) {
+            LocalDate periodStart = periodStart(firstDate, period * interval);
+            long periodEpoch = periodStart.atStartOfDay(zone).toEpochSecond();
+            if (periodEpoch >= to || periodEpoch > untilEpoch) {
+                return;
+            }
+            int n = datesInPeriod(firstDate, periodStart, dates);
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                LocalDate date = dates[i];
+                if (date.isBefore(firstDate)) {
+                    continue;
+                }
+                any = true;
+                long start = ZonedDateTime.of(date, time, zone).toEpochSecond();
+                if (start > untilEpoch || start >= to) {
+                    return;
+                }
+                if (count != null && produced >= count) {
+                    return;
+                }
+                produced++;
+                long end = start + durationSeconds;
+                if (end > from && visitor.applyAsLong(start, end) < 0) {
+                    return;
+                }
+            }
+            emptyPeriods = any ? 0 : emptyPeriods + 1;
+            if (emptyPeriods > MAX_EMPTY_PERIODS) {
+                return;
+            }
+            period++;
+        }
+    }
+
+    /**
+     * End of the last occurrence in epoch seconds, {@code Long.MAX_VALUE} for open-ended rules.
+     */
+    public long lastEnd(ZonedDateTime first, long durationSeconds) {
+        if (!isBounded()) {
+            return Long.MAX_VALUE;
+        }
+        long[] last = {first.toEpochSecond() + durationSeconds};
+        expand(first, durationSeconds, Long.MIN_VALUE, Long.MAX_VALUE, (start, end) -> {
+            last[0] = end;
+            return 0;
+        });
+        return last[0];
+    }
+
+    private long periodsBetween(LocalDate firstDate, LocalDate date) {
+        return switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(firstDate, date);
+            case WEEKLY -> Math.floorDiv(ChronoUnit.DAYS.between(monday(firstDate), date), 7);
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(firstDate), YearMonth.from(date));
+        };
+    }
+
+    private LocalDate periodStart(LocalDate firstDate, long offset) {
+        return switch (frequency) {
+            case DAILY -> firstDate.plusDays(offset);
+            case WEEKLY -> monday(firstDate).plusWeeks(offset);
+            case MONTHLY -> firstDate.withDayOfMonth(1).plusMonths(offset);
+        };
+    }
+
+    /**
+     * Fill {@code out} with the candidate dates of one period in ascending order, returns the count.
+     */
+    private int datesInPeriod(LocalDate firstDate, LocalDate periodStart, LocalDate[] out) {
+        switch (frequency) {
+            case DAILY -> {
+                out[0] = periodStart;
+                return 1;
+            }
+            case WEEKLY -> {
+                if (byDay == null) {
+                    out[0] = periodStart.plusDays(firstDate.getDayOfWeek().getValue() - 1L);
+                    return 1;
+                }
+                for (int i = 0; i < byDay.length; i++) {
+                    out[i] = periodStart.plusDays(byDay[i].getValue() - 1L);
+                }
+                return byDay.length;
+            }
+            default -> {
+                int length = periodStart.lengthOfMonth();
+                if (byMonthDay == null) {
+                    if (firstDate.getDayOfMonth() > length) {
+                        return 0;
+                    }
+                    out[0] = periodStart.withDayOfMonth(firstDate.getDayOfMonth());
+                    return 1;
+                }
+                int n = 0;
+                for (int day : byMonthDay) {
+                    int resolved = day > 0 ? day : length + day + 1;
+                    if (resolved >= 1 && resolved <= length) {
+                        out[n++] = periodStart.withDayOfMonth(resolved);
+                    }
+                }
+                // negative days can resolve out of order and onto the same day as positive ones
+                Arrays.sort(out, 0, n);
+                int unique = 0;
+                for (int i = 0; i < n; i++) {
+                    if (unique == 0 || !out[i].equals(out[unique - 1])) {
+                        out[unique++] = out[i];
+                    }
+                }
+                return unique;
+            }
+        }
+    }
+
+    private static LocalDate monday(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static Instant untilInstant(String until, ZoneId zone) {
+        try {
+            if (until.endsWith("Z")) {
+                return LocalDateTime.parse(until, UNTIL_UTC).toInstant(ZoneOffset.UTC);
+            }
+            if (until.length() == 8) {
+                // date-only UNTIL includes the whole day
+                return LocalDate.parse(until, UNTIL_DATE).plusDays(1).atStartOfDay(zone).toInstant().minusSeconds(1);
+            }
+            return LocalDateTime.parse(until, UNTIL_LOCAL).atZone(zone).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed UNTIL: " + until, e);
+        }
+    }
+
+    private static DayOfWeek[] parseDays(String arg) {
+        String[] codes = arg.split(",");
+        DayOfWeek[] days = new DayOfWeek[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            days[i] = switch (codes[i].strip()) {
+                case "MO" -> DayOfWeek.MONDAY;
+                case "TU" -> DayOfWeek.TUESDAY;
+                case "WE" -> DayOfWeek.WEDNESDAY;
+                case "TH" -> DayOfWeek.THURSDAY;
+                case "FR" -> DayOfWeek.FRIDAY;
+                case "SA" -> DayOfWeek.SATURDAY;
+                case "SU" -> DayOfWeek.SUNDAY;
+                default -> throw new IllegalArgumentException("Unsupported BYDAY value: " + codes[i]);
+            };
+        }
+        return Arrays.stream(days).distinct().sorted().toArray(DayOfWeek[]::new);
+    }
+
+    private static int[] parseMonthDays(String arg) {
+        int[] days = Arrays.stream(arg.split(",")).map(String::strip).mapToInt(Integer::parseInt).distinct().toArray();
+        for (int day : days) {
+            if (day == 0 || day < -31 || day > 31) {
+                throw new IllegalArgumentException("BYMONTHDAY out of range: " + day);
+            }
+        }
+        return days;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            sb.append(";INTERVAL=").append(interval);
+        }
+        if (byDay != null) {
+            sb.append(";BYDAY=");
+            for (int i = 0; i < byDay.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(byDay[i].name(), 0, 2);
+            }
+        }
+        if (byMonthDay != null) {
+            sb.append(";BYMONTHDAY=");
+            for (int i = 0; i < byMonthDay.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(byMonthDay[i]);
+            }
+        }
+        if (count != null) {
+            sb.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            sb.append(";UNTIL=").append(until);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.tsu.namespace.helper.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number: a producer claims position {@code p} with one CAS on the
+ * tail once the slot's sequence equals {@code p}, stores the element and publishes it by setting
+ * the sequence to {@code p + 1}. The consumer takes it when the sequence reads {@code p + 1} and
+ * hands the slot back by setting it to {@code p + capacity}. {@link #offer} never blocks; it
+ * fails when the buffer is full.
+ */
+public final class RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // written only by the consumer; volatile so size() is readable from producers
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Ring buffer capacity out of range: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // slot still holds the element from one lap ago
+                return false;
+            }
+            // another producer claimed this position; retry with the new tail
+        }
+    }
+
+    /**
+     * Consumer only.
+     */
+    public E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Consumer only. Hands up to {@code max} elements to {@code sink}; returns how many.
+     */
+    public int drain(Consumer<? super E> sink, int max) {
+        int count = 0;
+        E element;
+        while (count < max && (element = poll()) != null) {
+            sink.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Claimed positions not yet consumed; includes elements a producer is still publishing.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tsu.namespace.helper.support;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination on {@code (start_at, id)}: the sort key of the
+ * last row returned, URL-safe Base64 encoded. The LocalDateTime is encoded field-for-field, so the
+ * token round-trips exactly regardless of the storage zone's DST transitions.
+ */
+public record SeekToken(LocalDateTime startAt, UUID id) {
+
+    /**
+     * Position before every row. Used for the first page so each listing needs only one query.
+     */
+    public static final SeekToken FIRST = new SeekToken(LocalDateTime.of(1, 1, 1, 0, 0), new UUID(0L, 0L));
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * Decode a token produced by {@link #encode()}; null or blank means the first page.
+     */
+    public static SeekToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buf.remaining() != LENGTH || buf.get() != VERSION) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            LocalDateTime startAt = LocalDateTime.ofEpochSecond(buf.getLong(), buf.getInt(), ZoneOffset.UTC);
+            return new SeekToken(startAt, new UUID(buf.getLong(), buf.getLong()));
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(LENGTH);
+        buf.put(VERSION);
+        buf.putLong(startAt.toEpochSecond(ZoneOffset.UTC));
+        buf.putInt(startAt.getNano());
+        buf.putLong(id.getMostSignificantBits());
+        buf.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+}
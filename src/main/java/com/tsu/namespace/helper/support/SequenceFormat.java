@@ -0,0 +1,57 @@
+package com.tsu.namespace.helper.support;
+
+/**
+ * Formats sequence values as {@code prefix + zero-padded value + suffix}.
+ * <p>
+ * Digits are appended straight into a presized StringBuilder, with no intermediate strings for
+ * the value or its padding; {@link #appendTo} lets a bulk caller reuse one builder for a whole
+ * range. Values wider than {@code length} are written in full, as TextUtils.paddingHead does.
+ */
+public final class SequenceFormat {
+
+    private static final int MAX_INT_DIGITS = 10;
+
+    private final String prefix;
+    private final String suffix;
+    private final int length;
+
+    public SequenceFormat(String prefix, String suffix, int length) {
+        this.prefix = prefix != null ? prefix : "";
+        this.suffix = suffix != null ? suffix : "";
+        this.length = length;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String format(int value) {
+        return appendTo(new StringBuilder(capacity()), value).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder, int value) {
+        builder.append(prefix);
+        for (int i = digits(value); i < length; i++) {
+            builder.append('0');
+        }
+        return builder.append(value).append(suffix);
+    }
+
+    /**
+     * Enough room for any value, so the builder never grows.
+     */
+    public int capacity() {
+        return prefix.length() + Math.max(length, MAX_INT_DIGITS + 1) + suffix.length();
+    }
+
+    private static int digits(int value) {
+        // the sign counts as a digit, as it does in String.valueOf
+        int digits = value < 0 ? 2 : 1;
+        long v = Math.abs((long) value);
+        while (v >= 10) {
+            v /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
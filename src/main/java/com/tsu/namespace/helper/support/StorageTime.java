@@ -0,0 +1,34 @@
+package com.tsu.namespace.helper.support;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Conversions between the LocalDateTime values stored in booking tables and epoch seconds.
+ * Rows are written with LocalDateTime.now(), so they are interpreted in the JVM default zone.
+ */
+public final class StorageTime {
+
+    public static final ZoneId STORAGE_ZONE = ZoneId.systemDefault();
+
+    public static final long DAY_SECONDS = 86_400L;
+
+    private StorageTime() {
+    }
+
+    public static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.atZone(STORAGE_ZONE).toEpochSecond();
+    }
+
+    public static LocalDateTime fromEpoch(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), STORAGE_ZONE);
+    }
+
+    /**
+     * UTC day number containing the given epoch second.
+     */
+    public static long dayOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, DAY_SECONDS);
+    }
+}
@@ -0,0 +1,121 @@
+package com.tsu.namespace.helper.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel: four levels of 64 slots, level {@code n} slots spanning
+ * {@code tickMillis * 64^n}. Scheduling is O(1); entries cascade down a level when the wheel
+ * below wraps, so each entry moves at most three times before it fires.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+public final class TimerWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.slots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>(0));
+        }
+    }
+
+    /**
+     * Longest delay the wheel can hold.
+     */
+    public long getRangeMillis() {
+        return tickMillis * ((1L << (SLOT_BITS * LEVELS)) - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule {@code item} to fire at {@code deadlineMillis}; overdue deadlines fire on the next
+     * tick. Returns false when the deadline is beyond {@link #getRangeMillis()}.
+     */
+    public boolean schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        if (tick - currentTick > (1L << (SLOT_BITS * LEVELS)) - 1) {
+            return false;
+        }
+        place(new Entry<>(item, tick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Advance to {@code nowMillis}, handing every entry that became due to {@code expired}.
+     * Returns the number of entries fired.
+     */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        int fired = 0;
+        while (currentTick < target) {
+            if (size == 0) {
+                // nothing to cascade or fire, jump straight to the target
+                currentTick = target;
+                break;
+            }
+            currentTick++;
+            cascade();
+            List<Entry<T>> due = slots.get((int) (currentTick & MASK));
+            if (!due.isEmpty()) {
+                for (Entry<T> entry : due) {
+                    expired.accept(entry.item());
+                }
+                fired += due.size();
+                size -= due.size();
+                due.clear();
+            }
+        }
+        return fired;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (((currentTick >>> (SLOT_BITS * (level - 1))) & MASK) != 0) {
+                return;
+            }
+            List<Entry<T>> bucket = slots.get(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & MASK));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<T>> moving = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<T> entry : moving) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long tick = Math.max(entry.tick(), currentTick);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (delta >= SLOTS && level < LEVELS - 1) {
+            delta >>>= SLOT_BITS;
+            level++;
+        }
+        slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & MASK)).add(entry);
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.tsu.namespace.record;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a bulk booking import. Only rejected rows are listed; every other row was inserted.
+ * <p>
+ * {@code abortedAt} is null when the whole input was processed. Otherwise a chunk failed and the
+ * import stopped: rows before that index were committed or are listed as rejected, rows from it
+ * on were not imported and {@code received} counts only the rows read so far.
+ */
+public record BookingImportReport(int received, int imported, List<RowConflict> conflicts, Integer abortedAt) {
+
+    public enum Reason {
+        /** Missing resource/user/times, or end not after start. */
+        INVALID,
+        /** Resource does not exist in the namespace. */
+        UNKNOWN_RESOURCE,
+        /** Overlaps a live booking already stored. */
+        OVERLAPS_EXISTING,
+        /** Overlaps an earlier live row of the same import that was imported; the earlier row wins. */
+        OVERLAPS_BATCH,
+        /** Overlaps an occurrence of a recurring booking series. */
+        OVERLAPS_SERIES
+    }
+
+    /**
+     * A rejected row, by its zero-based position in the input. {@code conflictingIndex} is set for
+     * {@link Reason#OVERLAPS_BATCH}, {@code conflictingBookingId} for {@link Reason#OVERLAPS_EXISTING}.
+     */
+    public record RowConflict(int index, Reason reason, Integer conflictingIndex, UUID conflictingBookingId) {
+    }
+
+    public int getRejected() {
+        return conflicts.size();
+    }
+
+    public boolean isComplete() {
+        return abortedAt == null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tsu.namespace.record;
+
+import com.tsu.namespace.api.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One booking to bulk import. A null status imports as CONFIRMED.
+ */
+public record BookingImportRow(UUID resourceId,
+                               UUID userId,
+                               LocalDateTime startAt,
+                               LocalDateTime endAt,
+                               String title,
+                               String notes,
+                               BookingStatus status) {
+}
@@ -0,0 +1,77 @@
+package com.tsu.namespace.record;
+
+import com.tsu.auth.security.AppSecurityContext;
+import com.tsu.namespace.api.BookingStatus;
+import com.tsu.namespace.entities.BookingSeriesTb;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Record wrapper for BookingSeriesTb entity.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@RequiredArgsConstructor
+public class BookingSeriesRecord {
+
+    @ToString.Include
+    private final BookingSeriesTb tb;
+    private final AppSecurityContext context;
+
+    public UUID getNamespaceId() {
+        return tb.getId().getNamespaceId();
+    }
+
+    public UUID getId() {
+        return tb.getId().getId();
+    }
+
+    public UUID getResourceId() {
+        return tb.getResourceId();
+    }
+
+    public UUID getUserId() {
+        return tb.getUserId();
+    }
+
+    public String getTitle() {
+        return tb.getTitle();
+    }
+
+    public String getNotes() {
+        return tb.getNotes();
+    }
+
+    public String getRecurrenceRule() {
+        return tb.getRrule();
+    }
+
+    public String getTimezone() {
+        return tb.getTimezone();
+    }
+
+    public LocalDateTime getStartAt() {
+        return tb.getStartAt();
+    }
+
+    public LocalDateTime getEndAt() {
+        return tb.getEndAt();
+    }
+
+    /**
+     * End of the last occurrence, null for open-ended series
+     */
+    public LocalDateTime getSpanEnd() {
+        return tb.getSpanEnd();
+    }
+
+    public BookingStatus getStatus() {
+        return tb.getStatus();
+    }
+
+    public LocalDateTime getDeletedDate() {
+        return tb.getDeletedDate();
+    }
+}
@@ -0,0 +1,37 @@
+package com.tsu.namespace.record;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Outcome of converting a booking hold into a booking.
+ */
+public record HoldConversionResult(Outcome outcome, UUID holdId, BookingRecord booking) {
+
+    public enum Outcome {
+        /** Booking inserted and hold removed. */
+        CONVERTED,
+        /** No hold with the given id in the namespace. */
+        HOLD_NOT_FOUND,
+        /** Hold exists but has expired; it was left in place for the cleanup job. */
+        HOLD_EXPIRED,
+        /** The slot is already taken by another live booking (booking_no_overlap). */
+        SLOT_CONFLICT
+    }
+
+    public static HoldConversionResult converted(UUID holdId, BookingRecord booking) {
+        return new HoldConversionResult(Outcome.CONVERTED, holdId, booking);
+    }
+
+    public static HoldConversionResult failed(Outcome outcome, UUID holdId) {
+        return new HoldConversionResult(outcome, holdId, null);
+    }
+
+    public boolean isConverted() {
+        return outcome == Outcome.CONVERTED;
+    }
+
+    public Optional<BookingRecord> getBooking() {
+        return Optional.ofNullable(booking);
+    }
+}
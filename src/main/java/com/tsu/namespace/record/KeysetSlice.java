@@ -0,0 +1,24 @@
+package com.tsu.namespace.record;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing. {@code nextToken} is passed back to fetch the following page and
+ * is null on the last one. No total count is computed.
+ */
+public record KeysetSlice<T>(List<T> items, String nextToken) {
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public Optional<String> getNextToken() {
+        return Optional.ofNullable(nextToken);
+    }
+
+    public <R> KeysetSlice<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetSlice<>(items.stream().<R>map(mapper).toList(), nextToken);
+    }
+}
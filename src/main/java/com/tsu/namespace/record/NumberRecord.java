@@ -19,6 +19,10 @@ public class NumberRecord {
     }
 
 
+    public String getType() {
+        return tb.getType();
+    }
+
     public String getPrefix() {
         return tb.getPrefix();
     }
@@ -0,0 +1,28 @@
+package com.tsu.namespace.record;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outcome of creating a recurring booking series. When any occurrence collides with a live
+ * booking or another series, nothing is stored and the colliding occurrence starts are returned.
+ */
+public record SeriesCreationResult(BookingSeriesRecord series, List<LocalDateTime> conflicts) {
+
+    public static SeriesCreationResult created(BookingSeriesRecord series) {
+        return new SeriesCreationResult(series, List.of());
+    }
+
+    public static SeriesCreationResult conflicted(List<LocalDateTime> conflicts) {
+        return new SeriesCreationResult(null, conflicts);
+    }
+
+    public boolean isCreated() {
+        return series != null;
+    }
+
+    public Optional<BookingSeriesRecord> getSeries() {
+        return Optional.ofNullable(series);
+    }
+}
@@ -6,8 +6,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -94,4 +96,37 @@ public interface BookingHoldRepository extends JpaRepository<BookingHoldTb, Book
               AND bh.expires_at > ?5
             """, nativeQuery = true)
     boolean isSlotHeld(UUID namespaceId, UUID resourceId, LocalDateTime start, LocalDateTime end, LocalDateTime currentTime);
+
+    /**
+     * Delete up to {@code limit} expired holds across all namespaces, oldest expiry first, and
+     * return the deleted rows. Walks hold_expiry_idx; SKIP LOCKED lets several instances reap
+     * concurrently without waiting on each other.
+     */
+    @Transactional
+    @Query(value = """
+            DELETE FROM booking_hold bh
+            WHERE bh.id IN (
+                SELECT e.id
+                FROM booking_hold e
+                WHERE e.expires_at <= ?1
+                ORDER BY e.expires_at
+                LIMIT ?2
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING bh.*
+            """, nativeQuery = true)
+    List<BookingHoldTb> deleteExpiredHoldBatch(LocalDateTime currentTime, int limit);
+
+    /**
+     * Holds expiring in {@code (from, to]} across all namespaces, in expiry order
+     */
+    @Query(value = """
+            SELECT bh.*
+            FROM booking_hold bh
+            WHERE bh.expires_at > ?1
+              AND bh.expires_at <= ?2
+            ORDER BY bh.expires_at
+            LIMIT ?3
+            """, nativeQuery = true)
+    List<BookingHoldTb> findHoldsExpiringBetween(LocalDateTime from, LocalDateTime to, int limit);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -28,7 +29,7 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             FROM booking b
             WHERE b.namespace_id = ?1
               AND b.resource_id = ?2
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
             ORDER BY b.start_at
             """, nativeQuery = true)
     Stream<BookingTb> findByNamespaceIdAndResourceId(UUID namespaceId, UUID resourceId);
@@ -41,7 +42,7 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             FROM booking b
             WHERE b.namespace_id = ?1
               AND b.user_id = ?2
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
             ORDER BY b.start_at
             """, nativeQuery = true)
     Stream<BookingTb> findByNamespaceIdAndUserId(UUID namespaceId, UUID userId);
@@ -54,7 +55,7 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             FROM booking b
             WHERE b.namespace_id = ?1
               AND b.status = ?2
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
             ORDER BY b.start_at
             """, nativeQuery = true)
     Stream<BookingTb> findByNamespaceIdAndStatus(UUID namespaceId, String status);
@@ -68,7 +69,7 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             WHERE b.namespace_id = ?1
               AND b.resource_id = ?2
               AND b.slot && tstzrange(?3, ?4, '[)')
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
               AND b.status IN ('CONFIRMED', 'TENTATIVE')
             ORDER BY b.start_at
             """, nativeQuery = true)
@@ -83,7 +84,7 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             WHERE b.namespace_id = ?1
               AND b.user_id = ?2
               AND b.start_at > ?3
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
               AND b.status IN ('CONFIRMED', 'TENTATIVE')
             ORDER BY b.start_at
             """, nativeQuery = true)
@@ -99,11 +100,78 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
               AND b.resource_id = ?2
               AND b.start_at >= ?3
               AND b.end_at <= ?4
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
             ORDER BY b.start_at
             """, nativeQuery = true)
     Stream<BookingTb> findBookingsInRange(UUID namespaceId, UUID resourceId, LocalDateTime startRange, LocalDateTime endRange);
 
+    /**
+     * Keyset page of all bookings in the namespace, ordered by (start_at, id) after the given key.
+     * The redundant start_at bound gives the planner an index range for the row comparison.
+     */
+    @Query(value = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.start_at >= ?2
+              AND (b.start_at, b.id) > (?2, ?3)
+              AND b.deleted_date IS NULL
+            ORDER BY b.start_at, b.id
+            LIMIT ?4
+            """, nativeQuery = true)
+    Stream<BookingTb> findPageAfter(UUID namespaceId, LocalDateTime afterStart, UUID afterId, int limit);
+
+    /**
+     * Keyset page of a resource's bookings, served by booking_res_start_idx
+     */
+    @Query(value = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.resource_id = ?2
+              AND b.start_at >= ?3
+              AND (b.start_at, b.id) > (?3, ?4)
+              AND b.deleted_date IS NULL
+            ORDER BY b.start_at, b.id
+            LIMIT ?5
+            """, nativeQuery = true)
+    Stream<BookingTb> findResourcePageAfter(UUID namespaceId, UUID resourceId, LocalDateTime afterStart, UUID afterId, int limit);
+
+    /**
+     * Keyset page of a user's bookings, served by booking_user_start_idx
+     */
+    @Query(value = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.user_id = ?2
+              AND b.start_at >= ?3
+              AND (b.start_at, b.id) > (?3, ?4)
+              AND b.deleted_date IS NULL
+            ORDER BY b.start_at, b.id
+            LIMIT ?5
+            """, nativeQuery = true)
+    Stream<BookingTb> findUserPageAfter(UUID namespaceId, UUID userId, LocalDateTime afterStart, UUID afterId, int limit);
+
+    /**
+     * Keyset page of a user's live bookings starting after {@code fromTime}
+     */
+    @Query(value = """
+            SELECT b.*
+            FROM booking b
+            WHERE b.namespace_id = ?1
+              AND b.user_id = ?2
+              AND b.start_at > ?3
+              AND b.start_at >= ?4
+              AND (b.start_at, b.id) > (?4, ?5)
+              AND b.deleted_date IS NULL
+              AND b.status IN ('CONFIRMED', 'TENTATIVE')
+            ORDER BY b.start_at, b.id
+            LIMIT ?6
+            """, nativeQuery = true)
+    Stream<BookingTb> findUpcomingPageAfter(UUID namespaceId, UUID userId, LocalDateTime fromTime,
+                                            LocalDateTime afterStart, UUID afterId, int limit);
+
     /**
      * Check if a time slot is available (no overlapping bookings)
      */
@@ -113,8 +181,35 @@ public interface BookingRepository extends JpaRepository<BookingTb, BookingId>,
             WHERE b.namespace_id = ?1
               AND b.resource_id = ?2
               AND b.slot && tstzrange(?3, ?4, '[)')
-              AND b.deleted_at IS NULL
+              AND b.deleted_date IS NULL
               AND b.status IN ('CONFIRMED', 'TENTATIVE')
             """, nativeQuery = true)
     boolean isSlotAvailable(UUID namespaceId, UUID resourceId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Convert an unexpired hold into a booking in one statement: the hold is deleted and the
+     * booking inserted from its row, so either both happen or neither does. Returns empty when
+     * the hold does not exist or has expired; an overlapping live booking fails the statement
+     * with the booking_no_overlap exclusion violation.
+     * <p>
+     * Runs in the caller's transaction, which holds the resource lock taken for the series check.
+     */
+    @Transactional
+    @Query(value = """
+            WITH hold AS (
+                DELETE FROM booking_hold bh
+                WHERE bh.namespace_id = ?1
+                  AND bh.id = ?2
+                  AND bh.expires_at > ?3
+                RETURNING bh.namespace_id, bh.resource_id, bh.user_id, bh.start_at, bh.end_at
+            )
+            INSERT INTO booking (id, namespace_id, resource_id, user_id, title, notes, start_at, end_at,
+                                 status, created_by, created_date, modified_by, modified_date)
+            SELECT ?4, h.namespace_id, h.resource_id, h.user_id, ?5, ?6, h.start_at, h.end_at,
+                   ?7, ?8, ?3, ?8, ?3
+            FROM hold h
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<BookingTb> convertHold(UUID namespaceId, UUID holdId, LocalDateTime currentTime, UUID bookingId,
+                                    String title, String notes, String status, UUID userId);
 }
@@ -0,0 +1,43 @@
+package com.tsu.namespace.repo;
+
+import com.tsu.namespace.entities.BookingSeriesExceptionTb;
+import com.tsu.namespace.entities.id.BookingSeriesExceptionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface BookingSeriesExceptionRepository extends JpaRepository<BookingSeriesExceptionTb, BookingSeriesExceptionId> {
+
+    /**
+     * Find exceptions relevant to a window: those overriding an occurrence generated near the
+     * window (original_start in [originalFrom, windowEnd)) and those moved into the window
+     */
+    @Query(value = """
+            SELECT bse.*
+            FROM booking_series_exception bse
+            WHERE bse.namespace_id = ?1
+              AND bse.series_id IN (?2)
+              AND ((bse.original_start >= ?3 AND bse.original_start < ?5)
+                   OR (NOT bse.cancelled AND bse.start_at < ?5 AND bse.end_at > ?4))
+            """, nativeQuery = true)
+    Stream<BookingSeriesExceptionTb> findForWindow(UUID namespaceId, Collection<UUID> seriesIds,
+                                                   LocalDateTime originalFrom, LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Find all exceptions of a series
+     */
+    @Query(value = """
+            SELECT bse.*
+            FROM booking_series_exception bse
+            WHERE bse.namespace_id = ?1
+              AND bse.series_id = ?2
+            ORDER BY bse.original_start
+            """, nativeQuery = true)
+    Stream<BookingSeriesExceptionTb> findBySeries(UUID namespaceId, UUID seriesId);
+}
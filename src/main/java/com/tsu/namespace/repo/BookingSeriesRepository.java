@@ -0,0 +1,51 @@
+package com.tsu.namespace.repo;
+
+import com.tsu.namespace.entities.BookingSeriesTb;
+import com.tsu.namespace.entities.id.BookingSeriesId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeriesTb, BookingSeriesId> {
+
+    /**
+     * Find a specific series by namespace and ID
+     */
+    Optional<BookingSeriesTb> findByIdNamespaceIdAndIdId(UUID namespaceId, UUID id);
+
+    /**
+     * Find live series whose span overlaps a given time range
+     */
+    @Query(value = """
+            SELECT bs.*
+            FROM booking_series bs
+            WHERE bs.namespace_id = ?1
+              AND bs.resource_id = ?2
+              AND bs.span && tstzrange(?3, ?4, '[)')
+              AND bs.deleted_date IS NULL
+              AND bs.status IN ('CONFIRMED', 'TENTATIVE')
+            """, nativeQuery = true)
+    Stream<BookingSeriesTb> findOverlappingSeries(UUID namespaceId, UUID resourceId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Find live series of any of the given resources whose span overlaps a given time range
+     */
+    @Query(value = """
+            SELECT bs.*
+            FROM booking_series bs
+            WHERE bs.namespace_id = ?1
+              AND bs.resource_id IN (?2)
+              AND bs.span && tstzrange(?3, ?4, '[)')
+              AND bs.deleted_date IS NULL
+              AND bs.status IN ('CONFIRMED', 'TENTATIVE')
+            """, nativeQuery = true)
+    Stream<BookingSeriesTb> findOverlappingSeriesOfResources(UUID namespaceId, Collection<UUID> resourceIds,
+                                                             LocalDateTime start, LocalDateTime end);
+}
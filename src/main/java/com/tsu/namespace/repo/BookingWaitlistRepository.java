@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -81,4 +82,21 @@ public interface BookingWaitlistRepository extends JpaRepository<BookingWaitlist
             ORDER BY bw.created_at ASC
             """, nativeQuery = true)
     Stream<BookingWaitlistTb> findByNamespaceIdAndPriority(UUID namespaceId, Integer priority);
+
+    /**
+     * Lock waitlist entries whose desired range overlaps a freed interval, best first. Entries
+     * locked by a concurrent promotion are skipped rather than waited on.
+     */
+    @Query(value = """
+            SELECT bw.*
+            FROM booking_waitlist bw
+            WHERE bw.namespace_id = ?1
+              AND bw.resource_id = ?2
+              AND bw.desired_start < ?4
+              AND bw.desired_end > ?3
+            ORDER BY bw.priority ASC, bw.created_at ASC
+            LIMIT ?5
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<BookingWaitlistTb> lockPromotionCandidates(UUID namespaceId, UUID resourceId, LocalDateTime start, LocalDateTime end, int limit);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -24,6 +25,24 @@ public interface NamespaceUserRepository extends JpaRepository<NamespaceUserTb,
             """, nativeQuery = true)
     Stream<NspUsrVal> findNamespaceJoinedUserInfoByNamespaceId(UUID namespaceId);
 
+    @Query(value = """
+            SELECT u.id as principalId, nu.id as userId, nu.active, nu.display_name, u.image_url, r.name as role
+                FROM USER_BASE u JOIN NAMESPACE_USER nu ON u.id = nu.principal_id
+                LEFT JOIN namespace_role r on nu.role_id = r.id AND nu.role_namespace_id = r.namespace_id
+                WHERE nu.namespace_id = ?1
+                  AND nu.id IN (?2)
+            """, nativeQuery = true)
+    Stream<NspUsrVal> findNamespaceJoinedUserInfoByIds(UUID namespaceId, Collection<Integer> userIds);
+
+    @Query(value = """
+            SELECT u.id as principalId, nu.id as userId, nu.active, nu.display_name, u.image_url, r.name as role
+                FROM USER_BASE u JOIN NAMESPACE_USER nu ON u.id = nu.principal_id
+                LEFT JOIN namespace_role r on nu.role_id = r.id AND nu.role_namespace_id = r.namespace_id
+                WHERE nu.namespace_id = ?1
+                  AND nu.principal_id IN (?2)
+            """, nativeQuery = true)
+    Stream<NspUsrVal> findNamespaceJoinedUserInfoByPrincipalIds(UUID namespaceId, Collection<UUID> principalIds);
+
     Optional<NamespaceUserTb> findByIdNamespaceIdAndIdId(UUID namespaceId,Integer id);
 
     Stream<NamespaceUserTb> findByIdNamespaceId(UUID namespaceId);
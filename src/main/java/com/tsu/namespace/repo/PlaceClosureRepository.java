@@ -0,0 +1,50 @@
+package com.tsu.namespace.repo;
+
+import com.tsu.namespace.entities.PlaceClosureTb;
+import com.tsu.namespace.entities.id.PlaceClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read access to the place hierarchy closure table.
+ */
+@Repository
+public interface PlaceClosureRepository extends JpaRepository<PlaceClosureTb, PlaceClosureId> {
+
+    /**
+     * True when {@code descendantId} is {@code ancestorId} itself or lies below it.
+     */
+    boolean existsByNamespaceIdAndAncestorIdAndDescendantId(UUID namespaceId, UUID ancestorId, UUID descendantId);
+
+    /**
+     * The place and every place below it.
+     */
+    @Query("SELECT c.descendantId FROM PlaceClosureTb c WHERE c.namespaceId = :namespaceId AND c.ancestorId = :placeId")
+    List<UUID> findSubtreeIds(@Param("namespaceId") UUID namespaceId, @Param("placeId") UUID placeId);
+
+    /**
+     * Number of descendants below each of the given places; places without any are absent.
+     */
+    @Query("SELECT c.ancestorId AS placeId, COUNT(c) AS descendants " +
+           "FROM PlaceClosureTb c JOIN PlaceTb p ON p.id.namespaceId = c.namespaceId AND p.id.id = c.descendantId " +
+           "WHERE c.namespaceId = :namespaceId " +
+           "AND c.ancestorId IN :placeIds " +
+           "AND c.depth > 0 " +
+           "AND (:activeOnly = false OR p.active = true) " +
+           "GROUP BY c.ancestorId")
+    List<SubtreeCount> countDescendants(@Param("namespaceId") UUID namespaceId,
+                                        @Param("placeIds") Collection<UUID> placeIds,
+                                        @Param("activeOnly") boolean activeOnly);
+
+    interface SubtreeCount {
+        UUID getPlaceId();
+
+        long getDescendants();
+    }
+}
@@ -138,6 +138,24 @@ public interface PlaceRepositoryEnhanced extends JpaRepository<PlaceTb, PlaceId>
                                        @Param("minLng") double minLng,
                                        @Param("maxLng") double maxLng);
 
+    /**
+     * Find places of one type within a bounding box.
+     */
+    @Query(value = "SELECT p.* FROM place p " +
+                   "WHERE p.namespace_id = :namespaceId " +
+                   "AND p.type = :type " +
+                   "AND p.active = true " +
+                   "AND p.center IS NOT NULL " +
+                   "AND ST_Within(p.center::geometry, " +
+                   "  ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326))",
+           nativeQuery = true)
+    List<PlaceTb> findPlacesWithinBboxByType(@Param("namespaceId") UUID namespaceId,
+                                             @Param("type") String type,
+                                             @Param("minLat") double minLat,
+                                             @Param("maxLat") double maxLat,
+                                             @Param("minLng") double minLng,
+                                             @Param("maxLng") double maxLng);
+
     /**
      * Reverse geocode: find places containing a point.
      * Uses the database function for optimized reverse geocoding.
@@ -162,6 +180,43 @@ public interface PlaceRepositoryEnhanced extends JpaRepository<PlaceTb, PlaceId>
                             @Param("id1") UUID id1,
                             @Param("id2") UUID id2);
 
+    /**
+     * Mapbox Vector Tile z/x/y of the namespace's places: layer "place" holds the centers as
+     * points, layer "place_area" the bounding boxes as polygons. Null type or active matches all.
+     * Requires PostGIS 3.1 for the ST_TileEnvelope margin.
+     */
+    @Query(value = "WITH tile AS (SELECT ST_TileEnvelope(:z, :x, :y) AS env, " +
+                   "    ST_Transform(ST_TileEnvelope(:z, :x, :y, margin => CAST(:buffer AS float8) / :extent), 4326) AS area), " +
+                   "points AS ( " +
+                   "  SELECT ST_AsMVTGeom(ST_Transform(p.center::geometry, 3857), t.env, :extent, :buffer, true) AS geom, " +
+                   "         CAST(p.id AS text) AS id, p.name, p.type, p.active " +
+                   "  FROM place p, tile t " +
+                   "  WHERE p.namespace_id = :namespaceId " +
+                   "  AND p.center IS NOT NULL " +
+                   "  AND p.center && CAST(t.area AS geography) " +
+                   "  AND (CAST(:type AS text) IS NULL OR p.type = :type) " +
+                   "  AND (CAST(:active AS boolean) IS NULL OR p.active = :active)), " +
+                   "areas AS ( " +
+                   "  SELECT ST_AsMVTGeom(ST_Transform(p.bbox, 3857), t.env, :extent, :buffer, true) AS geom, " +
+                   "         CAST(p.id AS text) AS id, p.name, p.type, p.active " +
+                   "  FROM place p, tile t " +
+                   "  WHERE p.namespace_id = :namespaceId " +
+                   "  AND p.bbox IS NOT NULL " +
+                   "  AND p.bbox && t.area " +
+                   "  AND (CAST(:type AS text) IS NULL OR p.type = :type) " +
+                   "  AND (CAST(:active AS boolean) IS NULL OR p.active = :active)) " +
+                   "SELECT COALESCE((SELECT ST_AsMVT(points, 'place', :extent, 'geom') FROM points WHERE geom IS NOT NULL), CAST('' AS bytea)) " +
+                   "    || COALESCE((SELECT ST_AsMVT(areas, 'place_area', :extent, 'geom') FROM areas WHERE geom IS NOT NULL), CAST('' AS bytea))",
+           nativeQuery = true)
+    byte[] findPlaceTile(@Param("namespaceId") UUID namespaceId,
+                         @Param("z") int z,
+                         @Param("x") int x,
+                         @Param("y") int y,
+                         @Param("type") String type,
+                         @Param("active") Boolean active,
+                         @Param("extent") int extent,
+                         @Param("buffer") int buffer);
+
     // ========== Hierarchy Queries ==========
 
     /**
@@ -175,30 +230,28 @@ public interface PlaceRepositoryEnhanced extends JpaRepository<PlaceTb, PlaceId>
     Page<PlaceTb> findByNamespaceIdAndParentId(UUID namespaceId, UUID parentId, Pageable pageable);
 
     /**
-     * Find all descendants (recursive query).
-     * Uses PostgreSQL recursive CTE for hierarchy traversal.
+     * Find all descendants, nearest levels first.
+     * Reads the place_closure table, so the whole subtree is one index range.
      */
-    @Query(value = "WITH RECURSIVE descendants AS ( " +
-                   "  SELECT * FROM place WHERE namespace_id = :namespaceId AND parent_id = :parentId " +
-                   "  UNION ALL " +
-                   "  SELECT p.* FROM place p " +
-                   "  INNER JOIN descendants d ON p.parent_id = d.id AND p.namespace_id = d.namespace_id " +
-                   ") " +
-                   "SELECT * FROM descendants",
+    @Query(value = "SELECT p.* FROM place_closure c " +
+                   "JOIN place p ON p.namespace_id = c.namespace_id AND p.id = c.descendant_id " +
+                   "WHERE c.namespace_id = :namespaceId " +
+                   "AND c.ancestor_id = :parentId " +
+                   "AND c.depth > 0 " +
+                   "ORDER BY c.depth",
            nativeQuery = true)
     List<PlaceTb> findAllDescendants(@Param("namespaceId") UUID namespaceId,
                                      @Param("parentId") UUID parentId);
 
     /**
-     * Find ancestors of a place (bottom-up hierarchy).
+     * Find ancestors of a place (bottom-up hierarchy), parent first.
      */
-    @Query(value = "WITH RECURSIVE ancestors AS ( " +
-                   "  SELECT * FROM place WHERE namespace_id = :namespaceId AND id = :placeId " +
-                   "  UNION ALL " +
-                   "  SELECT p.* FROM place p " +
-                   "  INNER JOIN ancestors a ON p.id = a.parent_id AND p.namespace_id = a.namespace_id " +
-                   ") " +
-                   "SELECT * FROM ancestors WHERE id != :placeId",
+    @Query(value = "SELECT p.* FROM place_closure c " +
+                   "JOIN place p ON p.namespace_id = c.namespace_id AND p.id = c.ancestor_id " +
+                   "WHERE c.namespace_id = :namespaceId " +
+                   "AND c.descendant_id = :placeId " +
+                   "AND c.depth > 0 " +
+                   "ORDER BY c.depth",
            nativeQuery = true)
     List<PlaceTb> findAncestors(@Param("namespaceId") UUID namespaceId,
                                 @Param("placeId") UUID placeId);
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -54,4 +56,37 @@ public interface ResourceRepository extends JpaRepository<ResourceTb, ResourceId
             WHERE r.namespace_id = ?1 AND r.location = ?2
             """, nativeQuery = true)
     Stream<ResourceTb> findByNamespaceIdAndLocation(UUID namespaceId, String location,Pageable pageable);
+
+    /**
+     * Find the active resources among the given ids that have no live booking, unexpired hold
+     * or exception overlapping the range. Evaluated as one statement against the GiST indexes
+     * on booking.slot, booking_hold.slot and resource_exception.span.
+     */
+    @Query(value = """
+            SELECT r.*
+            FROM resource r
+            WHERE r.namespace_id = ?1
+              AND r.id IN (?2)
+              AND r.active = true
+              AND NOT EXISTS (
+                    SELECT 1 FROM booking b
+                    WHERE b.namespace_id = r.namespace_id
+                      AND b.resource_id = r.id
+                      AND b.slot && tstzrange(?3, ?4, '[)')
+                      AND b.deleted_date IS NULL
+                      AND b.status IN ('CONFIRMED', 'TENTATIVE'))
+              AND NOT EXISTS (
+                    SELECT 1 FROM booking_hold bh
+                    WHERE bh.namespace_id = r.namespace_id
+                      AND bh.resource_id = r.id
+                      AND bh.slot && tstzrange(?3, ?4, '[)')
+                      AND bh.expires_at > ?5)
+              AND NOT EXISTS (
+                    SELECT 1 FROM resource_exception re
+                    WHERE re.namespace_id = r.namespace_id
+                      AND re.resource_id = r.id
+                      AND re.span && tstzrange(?3, ?4, '[)'))
+            """, nativeQuery = true)
+    Stream<ResourceTb> findUnblockedResources(UUID namespaceId, Collection<UUID> resourceIds,
+                                              LocalDateTime start, LocalDateTime end, LocalDateTime currentTime);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -33,4 +34,15 @@ public interface ResourceWeeklyWindowRepository extends JpaRepository<ResourceWe
             ORDER BY rww.start_local
             """, nativeQuery = true)
     Stream<ResourceWeeklyWindowTb> findByNamespaceIdAndResourceIdAndDow(UUID namespaceId, UUID resourceId, Integer dow);
+
+    /**
+     * Find weekly windows for a set of resources
+     */
+    @Query(value = """
+            SELECT rww.*
+            FROM resource_weekly_window rww
+            WHERE rww.namespace_id = ?1 AND rww.resource_id IN (?2)
+            ORDER BY rww.resource_id, rww.dow, rww.start_local
+            """, nativeQuery = true)
+    Stream<ResourceWeeklyWindowTb> findByNamespaceIdAndResourceIdIn(UUID namespaceId, Collection<UUID> resourceIds);
 }
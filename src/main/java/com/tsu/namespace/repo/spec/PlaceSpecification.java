@@ -1,5 +1,6 @@
 package com.tsu.namespace.repo.spec;
 
+import com.tsu.namespace.entities.PlaceClosureTb;
 import com.tsu.namespace.entities.PlaceTb;
 import com.tsu.place.request.PlaceFilter;
 import jakarta.persistence.criteria.*;
@@ -69,10 +70,10 @@ public class PlaceSpecification {
             // Hierarchy filters
             if (filter.getParentId() != null) {
                 if (filter.getIncludeDescendants() != null && filter.getIncludeDescendants()) {
-                    // Recursive CTE would be needed for full descendants - simplified here
-                    log.warn("includeDescendants requires recursive query - using direct children only");
+                    predicates.add(isDescendantOf(root, query, cb, namespaceId, filter.getParentId()));
+                } else {
+                    predicates.add(cb.equal(root.get("parentId"), filter.getParentId()));
                 }
-                predicates.add(cb.equal(root.get("parentId"), filter.getParentId()));
             }
 
             // Geo-spatial filters (handled separately in repository for native queries)
@@ -142,6 +143,27 @@ public class PlaceSpecification {
         return (root, query, cb) -> cb.equal(root.get("parentId"), parentId);
     }
 
+    /**
+     * Specification for every place below {@code ancestorId}, at any depth.
+     */
+    public static Specification<PlaceTb> hasAncestor(UUID namespaceId, UUID ancestorId) {
+        return (root, query, cb) -> isDescendantOf(root, query, cb, namespaceId, ancestorId);
+    }
+
+    /**
+     * Place id in the ancestor's closure rows: one index range instead of a recursive query.
+     */
+    private static Predicate isDescendantOf(Root<PlaceTb> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                            UUID namespaceId, UUID ancestorId) {
+        Subquery<UUID> descendants = query.subquery(UUID.class);
+        Root<PlaceClosureTb> closure = descendants.from(PlaceClosureTb.class);
+        descendants.select(closure.<UUID>get("descendantId"))
+                .where(cb.equal(closure.get("namespaceId"), namespaceId),
+                        cb.equal(closure.get("ancestorId"), ancestorId),
+                        cb.greaterThan(closure.<Integer>get("depth"), 0));
+        return root.get("id").get("id").in(descendants);
+    }
+
     /**
      * Specification for root-level places (no parent).
      */
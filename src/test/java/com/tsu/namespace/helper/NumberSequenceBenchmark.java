@@ -0,0 +1,128 @@
+package com.tsu.namespace.helper;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Numbers per second from {@link NumberSequenceAllocator} at 1, 8 and 64 concurrent callers, all
+ * drawing from one (namespace, prefix) sequence in a PostgreSQL container.
+ * <p>
+ * Each call runs in its own transaction, as a number issued outside a caller's transaction does:
+ * GAPLESS holds the advisory lock until that commit, FAST serves values from cached blocks of
+ * {@code blockSize}. After a GAPLESS trial the row must equal the number of values handed out.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args=NumberSequenceBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NumberSequenceBenchmark {
+
+    private static final String PREFIX = "INV-";
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE number_sequence (
+                namespace_id uuid NOT NULL,
+                id serial NOT NULL,
+                prefix text,
+                current_seq int,
+                version int NOT NULL DEFAULT 0,
+                PRIMARY KEY (namespace_id, id)
+            )
+            """;
+
+    @Param({"GAPLESS", "FAST"})
+    public NumberSequenceAllocator.GapMode mode;
+
+    @Param("50")
+    public int blockSize;
+
+    private final UUID namespaceId = UUID.randomUUID();
+    private final LongAdder issued = new LongAdder();
+
+    private PostgreSQLContainer<?> postgres;
+    private HikariDataSource dataSource;
+    private NumberSequenceAllocator allocator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(postgres.getJdbcUrl());
+        config.setUsername(postgres.getUsername());
+        config.setPassword(postgres.getPassword());
+        // one connection per caller at the highest concurrency
+        config.setMaximumPoolSize(64);
+        dataSource = new HikariDataSource(config);
+        new JdbcTemplate(dataSource).execute(CREATE_TABLE);
+        allocator = new NumberSequenceAllocator(dataSource, new DataSourceTransactionManager(dataSource),
+                mode, blockSize, Set.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            if (mode == NumberSequenceAllocator.GapMode.GAPLESS) {
+                Long current = new JdbcTemplate(dataSource).queryForObject(
+                        "SELECT current_seq FROM number_sequence WHERE namespace_id = ? AND prefix = ?",
+                        Long.class, namespaceId, PREFIX);
+                if (current == null || current != issued.sum()) {
+                    throw new IllegalStateException("Gapless sequence at " + current + " after " + issued.sum() + " values");
+                }
+            }
+        } finally {
+            dataSource.close();
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int callers1() {
+        return next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int callers8() {
+        return next();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int callers64() {
+        return next();
+    }
+
+    private int next() {
+        int value = allocator.allocate(namespaceId, PREFIX, mode, v -> v);
+        issued.increment();
+        return value;
+    }
+}
@@ -0,0 +1,122 @@
+package com.tsu.namespace.helper.support;
+
+import com.tsu.namespace.val.NspUsrVal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Retained heap per member of {@link CompactUserTable} against the two HashMaps it replaced, one
+ * keyed by user id and one by principal id, both holding the same values.
+ * <p>
+ * Each layout is built from freshly generated members, so it owns its text, and measured as the
+ * growth of the used heap after repeated full GCs. Every member is then looked up in both layouts
+ * by user id and by principal id and the values are compared. Arguments are the number of
+ * namespaces and members per namespace (default 20 x 50000); run with SerialGC for stable numbers:
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.tsu.namespace.helper.support.CompactUserTableFootprint -Dbenchmark.args="20 50000"}
+ */
+public final class CompactUserTableFootprint {
+
+    private static final String[] ROLES = {"owner", "admin", "member", "member", "member", "guest"};
+
+    private CompactUserTableFootprint() {
+    }
+
+    public static void main(String[] args) {
+        String[] parts = args.length == 1 ? args[0].trim().split("\\s+") : args;
+        int namespaces = parts.length > 0 && !parts[0].isEmpty() ? Integer.parseInt(parts[0]) : 20;
+        int members = parts.length > 1 ? Integer.parseInt(parts[1]) : 50_000;
+        long total = (long) namespaces * members;
+
+        long before = usedAfterGc();
+        List<UserMaps> maps = new ArrayList<>(namespaces);
+        for (int ns = 0; ns < namespaces; ns++) {
+            maps.add(UserMaps.of(generate(ns, members)));
+        }
+        long mapBytes = usedAfterGc() - before;
+
+        before = usedAfterGc();
+        List<CompactUserTable> tables = new ArrayList<>(namespaces);
+        long estimated = 0;
+        for (int ns = 0; ns < namespaces; ns++) {
+            CompactUserTable table = CompactUserTable.of(generate(ns, members));
+            estimated += table.estimatedBytes();
+            tables.add(table);
+        }
+        long tableBytes = usedAfterGc() - before;
+
+        verify(maps, tables, members);
+        Reference.reachabilityFence(maps);
+        Reference.reachabilityFence(tables);
+
+        System.out.printf("%d namespaces x %d members%n", namespaces, members);
+        System.out.printf("  two HashMaps  %,d bytes, %d B/member%n", mapBytes, mapBytes / total);
+        System.out.printf("  compact table %,d bytes, %d B/member (estimatedBytes %d B/member)%n",
+                tableBytes, tableBytes / total, estimated / total);
+    }
+
+    /**
+     * Members of one namespace; the same namespace index always yields equal members.
+     */
+    private static List<NspUsrVal> generate(int namespace, int members) {
+        Random random = new Random(namespace);
+        List<NspUsrVal> users = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            UUID principalId = new UUID(random.nextLong(), random.nextLong());
+            String displayName = "User " + Integer.toString(random.nextInt(1 << 30), 36) + " " + i;
+            String imageUrl = random.nextInt(4) == 0 ? null : "https://img.example.com/u/" + principalId + ".png";
+            users.add(new NspUsrVal(principalId, i + 1, random.nextInt(10) != 0, displayName, imageUrl,
+                    ROLES[random.nextInt(ROLES.length)]));
+        }
+        return users;
+    }
+
+    private static void verify(List<UserMaps> maps, List<CompactUserTable> tables, int members) {
+        for (int ns = 0; ns < maps.size(); ns++) {
+            UserMaps expected = maps.get(ns);
+            CompactUserTable table = tables.get(ns);
+            if (table.size() != expected.byId().size()) {
+                throw new IllegalStateException("Namespace " + ns + " has " + table.size() + " rows, expected " + expected.byId().size());
+            }
+            for (int userId = 1; userId <= members; userId++) {
+                NspUsrVal value = expected.byId().get(userId);
+                if (!Objects.equals(value, table.get(userId))
+                        || !Objects.equals(value, table.getByPrincipal(value.principalId()))) {
+                    throw new IllegalStateException("Namespace " + ns + " differs for user " + userId);
+                }
+            }
+        }
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private record UserMaps(Map<Integer, NspUsrVal> byId, Map<UUID, NspUsrVal> byPrincipal) {
+
+        static UserMaps of(List<NspUsrVal> users) {
+            Map<Integer, NspUsrVal> byId = new HashMap<>();
+            Map<UUID, NspUsrVal> byPrincipal = new HashMap<>();
+            for (NspUsrVal user : users) {
+                byId.put(user.userId(), user);
+                byPrincipal.put(user.principalId(), user);
+            }
+            return new UserMaps(byId, byPrincipal);
+        }
+    }
+}